@@ -0,0 +1,155 @@
+#!/usr/bin/env bash
+# Boots the native executable against the stand-ins in docker-compose.smoke.yml (a seeded
+# Postgres and WireMock for the downstream services) and calls every controller. Exits non-zero
+# if the application does not start or any call returns an unexpected status, so CI can run it
+# right after the native build:
+#
+#   ./mvnw -Pnative -DskipTests package
+#   scripts/native-smoke-test.sh [executable]
+#
+# Pass target/project-0.0.1-SNAPSHOT.jar instead of an executable to run the same checks on the
+# JVM. PORT overrides the application port.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+APP="${1:-target/employee-management}"
+PORT="${PORT:-8081}"
+BASE="http://localhost:${PORT}"
+DOWNSTREAM="http://localhost:8089"
+COMPOSE=(docker compose -f docker-compose.smoke.yml)
+AUTH=(-u smoke:smoke-password)
+LOG="$(mktemp)"
+BODY="$(mktemp)"
+APP_PID=""
+failures=0
+
+if [[ ! -f "${APP}" ]]; then
+  echo "${APP} not found; build it with ./mvnw -Pnative -DskipTests package" >&2
+  exit 1
+fi
+
+cleanup() {
+  if [[ -n "${APP_PID}" ]]; then
+    kill "${APP_PID}" 2>/dev/null || true
+    wait "${APP_PID}" 2>/dev/null || true
+  fi
+  "${COMPOSE[@]}" down -v >/dev/null 2>&1 || true
+  rm -f "${BODY}"
+}
+trap cleanup EXIT
+
+"${COMPOSE[@]}" up -d --wait
+until curl -sf -o /dev/null "${DOWNSTREAM}/__admin/mappings"; do sleep 0.5; done
+
+APP_ARGS=(--server.port="${PORT}"
+  --spring.datasource.url=jdbc:postgresql://localhost:5432/client_db
+  --spring.datasource.username=postgres --spring.datasource.password=postgres
+  --service.url="${DOWNSTREAM}"
+  --service.hierarchy.url="${DOWNSTREAM}/api/employee-hierarchy"
+  --service.timeoff.url="${DOWNSTREAM}/timeoff"
+  --service.employee-profile.url="${DOWNSTREAM}/employeeProfile"
+  --service.auth.username=smoke --service.auth.password=smoke)
+
+start=$(date +%s%N)
+if [[ "${APP}" == *.jar ]]; then
+  java -jar "${APP}" "${APP_ARGS[@]}" >"${LOG}" 2>&1 &
+else
+  "${APP}" "${APP_ARGS[@]}" >"${LOG}" 2>&1 &
+fi
+APP_PID=$!
+
+until [[ "$(curl -s -o /dev/null -w '%{http_code}' "${AUTH[@]}" "${BASE}/actuator/health")" == 200 ]]; do
+  if ! kill -0 "${APP_PID}" 2>/dev/null; then
+    echo "application exited during startup; log: ${LOG}" >&2
+    tail -50 "${LOG}" >&2
+    exit 1
+  fi
+  if (( ($(date +%s%N) - start) / 1000000000 > 120 )); then
+    echo "application not healthy after 120s; log: ${LOG}" >&2
+    exit 1
+  fi
+  sleep 0.1
+done
+echo "started in $(( ($(date +%s%N) - start) / 1000000 ))ms, RSS $(( $(ps -o rss= -p "${APP_PID}") / 1024 ))MB"
+
+# check <expected status> <method> <path> [curl args...]
+check() {
+  local expected="$1" method="$2" path="$3"
+  shift 3
+  local status
+  status=$(curl -s -o "${BODY}" -w '%{http_code}' "${AUTH[@]}" -X "${method}" "$@" "${BASE}${path}")
+  if [[ "${status}" == "${expected}" ]]; then
+    echo "ok   ${method} ${path} (${status})"
+  else
+    echo "FAIL ${method} ${path}: expected ${expected}, got ${status}: $(head -c 500 "${BODY}")"
+    failures=$((failures + 1))
+  fi
+}
+
+JSON=(-H 'Content-Type: application/json')
+START_DATE=$(date -d '+30 days' +%F)
+END_DATE=$(date -d '+31 days' +%F)
+
+# security
+check 401 GET /patient -u smoke:wrong-password
+check 200 GET /actuator/health
+
+# PatientController: entities, search, JPQL constructor expressions, optimistic locking
+check 200 GET /patient
+check 200 GET /patient/1
+check 200 GET '/patient/search?q=Jane'
+check 201 POST /patient "${JSON[@]}" -d '{"name":"John Smoke","phoneNumber":"5550199","age":30}'
+check 200 PATCH /patient/1/updatePhoneNumber "${JSON[@]}" -d '{"phoneNumber":"5550101"}'
+check 200 GET /patient/1/records
+check 200 GET /patient/1/timeline
+check 200 GET '/patient/records/search?q=ibuprofen'
+check 200 GET /patient/records/getByDoctorId/7
+
+# EmployeeProfileController: local rows plus the employee profile service
+check 200 GET /client/employeeProfile/getAllEmployeesInClient
+check 200 GET /client/employeeProfile/designationCounts
+check 200 GET /client/employeeProfile/getEmployee/7
+
+# EmployeeHierarchyClientController: pass-through, streamed and decoded responses
+check 200 GET /client/hierarchy/subordinates/1
+check 200 GET /client/hierarchy/supervisor/7
+check 200 GET /client/hierarchy/tree/1
+check 200 GET /client/hierarchy/managers/7/2
+
+# TimeOffClientController: Jackson binding of TimeOff and TimeOffRequest
+check 200 GET /client/timeoff/7/7
+check 200 GET "/client/timeoff/team/1/1?start=2026-01-01&end=2026-01-31"
+# 1 is 7's supervisor, so 1 may view 7's team but not the other way round
+check 200 GET "/client/timeoff/team/1/7?start=2026-01-01&end=2026-01-31"
+check 403 GET "/client/timeoff/team/7/1?start=2026-01-01&end=2026-01-31"
+check 200 POST /client/timeoff/create "${JSON[@]}" \
+  -d "{\"employeeId\":7,\"leaveType\":\"CASUAL\",\"startDate\":\"${START_DATE}\",\"endDate\":\"${END_DATE}\",\"reason\":\"smoke\"}"
+
+# PayrollController: JSON pass-through, CBOR, requests and background jobs
+check 200 GET /client/payroll/7
+check 200 GET /client/payroll/7 -H 'Accept: application/cbor'
+check 200 GET /client/payroll/7/getRequests
+check 200 GET /payroll/getPendingRequests
+check 202 POST /payroll/jobs/generatePayroll "${JSON[@]}" -d '{"month":1,"year":2026}'
+job_id=$(grep -o '"jobId":[0-9]*' "${BODY}" | cut -d: -f2 || true)
+if [[ -n "${job_id}" ]]; then
+  for _ in $(seq 1 50); do
+    check 200 GET "/payroll/jobs/${job_id}" >/dev/null
+    if grep -qE '"status":"(SUCCEEDED|FAILED|CANCELLED)"' "${BODY}"; then
+      break
+    fi
+    sleep 0.2
+  done
+  if grep -q '"status":"SUCCEEDED"' "${BODY}"; then
+    echo "ok   payroll job ${job_id} succeeded"
+  else
+    echo "FAIL payroll job ${job_id} did not succeed: $(head -c 500 "${BODY}")"
+    failures=$((failures + 1))
+  fi
+fi
+
+if (( failures > 0 )); then
+  echo "${failures} check(s) failed; application log: ${LOG}" >&2
+  exit 1
+fi
+echo "all checks passed"
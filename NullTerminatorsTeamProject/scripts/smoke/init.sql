@@ -0,0 +1,63 @@
+-- Tables the client shares with the other services; schema.sql only adds to them
+CREATE SEQUENCE user_id_seq;
+
+CREATE TABLE user_login_details (
+    id INTEGER PRIMARY KEY,
+    employee_id INTEGER UNIQUE,
+    username VARCHAR(255) UNIQUE,
+    password VARCHAR(255),
+    role VARCHAR(255)
+);
+
+CREATE TABLE employee_profile_management (
+    id INTEGER PRIMARY KEY,
+    designation VARCHAR(255) NOT NULL
+);
+
+CREATE SEQUENCE patient_id_seq;
+
+CREATE TABLE patient (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) UNIQUE,
+    age INTEGER NOT NULL
+);
+
+CREATE SEQUENCE patient_record_id_seq;
+
+CREATE TABLE patient_records (
+    id INTEGER PRIMARY KEY,
+    doctor_id INTEGER NOT NULL,
+    patient_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    prescription VARCHAR(255) NOT NULL,
+    notes VARCHAR(255) NOT NULL
+);
+
+CREATE SEQUENCE payroll_requests_id_seq;
+
+CREATE TABLE payroll_requests (
+    id INTEGER PRIMARY KEY,
+    emp_id INTEGER NOT NULL,
+    reason VARCHAR(255) NOT NULL,
+    m_reason VARCHAR(255) NOT NULL,
+    created_date DATE NOT NULL,
+    approved INTEGER NOT NULL
+);
+
+-- smoke / smoke-password
+INSERT INTO user_login_details (id, employee_id, username, password, role)
+VALUES (nextval('user_id_seq'), 1, 'smoke',
+        '$2a$10$2KSRDDmWrKwQr9zkBF7osuJ777cYvW8OD3druRCjxID7XAbBKlZbu', 'SUPERUSER');
+
+INSERT INTO employee_profile_management (id, designation) VALUES (1, 'IT'), (7, 'Doctor');
+
+INSERT INTO patient (id, name, phone_number, age) VALUES (nextval('patient_id_seq'), 'Jane Roe', '5550100', 42);
+
+INSERT INTO patient_records (id, doctor_id, patient_id, date, prescription, notes)
+VALUES (nextval('patient_record_id_seq'), 7, 1, DATE '2026-01-05', 'ibuprofen', 'follow up in two weeks');
+
+INSERT INTO payroll_requests (id, emp_id, reason, m_reason, created_date, approved)
+VALUES (nextval('payroll_requests_id_seq'), 7, 'overtime', '', DATE '2026-01-05', 0),
+       -- picked up by /payroll/getPendingRequests, which lists approved = 1
+       (nextval('payroll_requests_id_seq'), 7, 'bonus', '', DATE '2026-01-06', 1);
@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Compares time-to-first-request of the plain jar with the fast-start build (AOT, AppCDS, lazy
+# init, deferred JPA). The clock starts at launch and stops when a request carrying Basic
+# credentials gets any HTTP answer; checking those credentials reads the user table, so the
+# database and JPA are up by then.
+#
+#   docker compose -f docker-compose.local.yml up -d postgres-primary
+#   ./mvnw -Pfast-start package -DskipTests
+#   scripts/startup-benchmark.sh [runs]
+#
+# DB_URL, DB_USERNAME, DB_PASSWORD and PORT override the defaults below.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${PORT:-8081}"
+DB_URL="${DB_URL:-jdbc:postgresql://localhost:5432/client_db}"
+DB_USERNAME="${DB_USERNAME:-postgres}"
+DB_PASSWORD="${DB_PASSWORD:-postgres}"
+JAR="target/project-0.0.1-SNAPSHOT.jar"
+FAST_DIR="target/fast-start"
+PROBE_URL="http://localhost:${PORT}/actuator/health"
+TIMEOUT_SECONDS=120
+
+APP_ARGS=(--server.port="${PORT}" --spring.datasource.url="${DB_URL}"
+  --spring.datasource.username="${DB_USERNAME}" --spring.datasource.password="${DB_PASSWORD}")
+
+if [[ ! -f "${JAR}" || ! -f "${FAST_DIR}/application.jar" ]]; then
+  echo "Build first: ./mvnw -Pfast-start package -DskipTests" >&2
+  exit 1
+fi
+CDS_ARGS=()
+if [[ -f "${FAST_DIR}/application.jsa" ]]; then
+  CDS_ARGS=(-XX:SharedArchiveFile=application.jsa -Xlog:cds=off -Xlog:cds+dynamic=off)
+else
+  echo "No CDS archive in ${FAST_DIR}; fast-start runs without class data sharing" >&2
+fi
+
+# Prints the milliseconds from launch to the first answered request.
+time_to_first_request() {
+  local dir="$1"
+  shift
+  local start pid status
+  start=$(date +%s%N)
+  (cd "${dir}" && exec "$@" >/dev/null 2>&1) &
+  pid=$!
+  while true; do
+    status=$(curl -s -o /dev/null -w '%{http_code}' -u benchmark:benchmark "${PROBE_URL}" || true)
+    if [[ "${status}" != "000" ]]; then
+      break
+    fi
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "application exited before answering; check the database settings" >&2
+      return 1
+    fi
+    if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+      kill "${pid}"
+      echo "no answer within ${TIMEOUT_SECONDS}s" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  echo $(( ($(date +%s%N) - start) / 1000000 ))
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+}
+
+report() {
+  local name="$1"
+  shift
+  sort -n <<<"$(printf '%s\n' "$@")" | awk -v name="${name}" '
+    { t[NR] = $1; sum += $1 }
+    END { printf "%-12s runs=%d min=%dms median=%dms mean=%dms\n",
+          name, NR, t[1], t[int((NR + 1) / 2)], sum / NR }'
+}
+
+baseline=()
+fast=()
+for ((i = 1; i <= RUNS; i++)); do
+  baseline+=("$(time_to_first_request . java -jar "${JAR}" "${APP_ARGS[@]}")")
+  fast+=("$(time_to_first_request "${FAST_DIR}" java "${CDS_ARGS[@]}" -Dspring.aot.enabled=true \
+    -jar application.jar --spring.profiles.active=fast-start "${APP_ARGS[@]}")")
+  echo "run ${i}: baseline=${baseline[-1]}ms fast-start=${fast[-1]}ms"
+done
+
+report baseline "${baseline[@]}"
+report fast-start "${fast[@]}"
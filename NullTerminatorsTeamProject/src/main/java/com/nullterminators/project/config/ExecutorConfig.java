@@ -0,0 +1,132 @@
+package com.nullterminators.project.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Dedicated thread pools for background work, kept separate so a backlog in one pipeline cannot
+ * starve another or the servlet threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+  /**
+   * Worker pool that runs employee onboarding jobs.
+   *
+   * @param threads number of worker threads
+   * @param queueCapacity number of jobs that may wait for a worker
+   * @return the onboarding executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor onboardingExecutor(
+      @Value("${onboarding.worker.threads:4}") int threads,
+      @Value("${onboarding.worker.queue-capacity:1000}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("onboarding-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+
+  /**
+   * CPU-bound pool for BCrypt hashing, sized to the number of cores.
+   *
+   * @return the password hashing executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor passwordHashExecutor() {
+    int cores = Runtime.getRuntime().availableProcessors();
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(cores);
+    executor.setMaxPoolSize(cores);
+    executor.setThreadNamePrefix("password-hash-");
+    return executor;
+  }
+
+  /**
+   * Pool for the remote calls of a bulk import. Its size bounds how many requests a single import
+   * has in flight against the employee service.
+   *
+   * @param concurrency maximum number of concurrent remote calls
+   * @return the bulk import executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor bulkImportExecutor(
+      @Value("${bulk-import.remote-concurrency:8}") int concurrency) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setThreadNamePrefix("bulk-import-");
+    return executor;
+  }
+
+  /**
+   * Pool for blocking calls to downstream services that are issued concurrently while serving a
+   * request, such as fetching the time-off of every member of a team. Once the queue is full the
+   * requesting thread makes the call itself, which slows that request down instead of failing it.
+   *
+   * @param threads maximum number of concurrent downstream calls
+   * @param queueCapacity number of calls that may wait for a thread
+   * @return the I/O executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor ioExecutor(@Value("${downstream.io.threads:16}") int threads,
+      @Value("${downstream.io.queue-capacity:500}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setThreadNamePrefix("downstream-io-");
+    return executor;
+  }
+
+  /**
+   * Pool for the periodic time-off refresh, kept apart from the I/O executor so background
+   * refreshes never queue ahead of calls made for a waiting user. Refreshes that do not fit the
+   * queue are rejected and left for the next sync.
+   *
+   * @param threads number of concurrent refreshes
+   * @param queueCapacity number of refreshes that may wait for a thread
+   * @return the time-off sync executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor timeOffSyncExecutor(
+      @Value("${timeoff.sync.threads:2}") int threads,
+      @Value("${timeoff.sync.queue-capacity:200}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("timeoff-sync-");
+    return executor;
+  }
+
+  /**
+   * Worker pool for company-wide payroll generation and deletion jobs. Each job holds a thread for
+   * the whole run on the payroll service, so the pool is small.
+   *
+   * @param threads number of worker threads
+   * @param queueCapacity number of jobs that may wait for a worker
+   * @return the payroll job executor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor payrollJobExecutor(
+      @Value("${payroll-job.worker.threads:2}") int threads,
+      @Value("${payroll-job.worker.queue-capacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("payroll-job-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    return executor;
+  }
+}
@@ -0,0 +1,20 @@
+package com.nullterminators.project.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the per-request SQL statement counter into Hibernate. Session factory statistics
+ * (statements, entity loads, second-level cache hits, flushes) are published by Spring Boot once
+ * {@code hibernate.statistics.enabled} turns on {@code hibernate.generate_statistics}.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+  }
+}
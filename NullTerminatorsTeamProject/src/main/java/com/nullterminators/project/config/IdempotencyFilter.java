@@ -0,0 +1,212 @@
+package com.nullterminators.project.config;
+
+import com.nullterminators.project.service.IdempotencyStore;
+import com.nullterminators.project.service.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes the expensive POST endpoints safe to retry. A request carrying an {@code Idempotency-Key}
+ * header is executed once per user and key; retries with the same body get the stored response,
+ * retries while the first attempt is still running get 409, and reusing a key for a different
+ * request gets 422. Server errors are not stored, so they can be retried.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  static final String HEADER = "Idempotency-Key";
+  static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final List<Pattern> ENDPOINTS = List.of(
+      Pattern.compile("/payroll/generatePayroll"),
+      Pattern.compile("/payroll/[^/]+/addPayroll"),
+      Pattern.compile("/patient"),
+      Pattern.compile("/client/payroll/[^/]+/createRequest"));
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyStore idempotencyStore;
+
+  public IdempotencyFilter(IdempotencyStore idempotencyStore) {
+    this.idempotencyStore = idempotencyStore;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+      return true;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return ENDPOINTS.stream().noneMatch(pattern -> pattern.matcher(path).matches());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    String idempotencyKey = request.getHeader(HEADER);
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      reject(response, HttpStatus.BAD_REQUEST, "invalid Idempotency-Key");
+      return;
+    }
+
+    byte[] body = request.getInputStream().readAllBytes();
+    String key = caller() + ":" + idempotencyKey;
+    String hash = hash(request, body);
+    String claimToken = UUID.randomUUID().toString();
+
+    StoredResponse existing = idempotencyStore.claim(key, hash, claimToken);
+    if (existing != null) {
+      if (!existing.requestHash().equals(hash)) {
+        reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+            "Idempotency-Key was already used for a different request");
+      } else if (!existing.completed()) {
+        reject(response, HttpStatus.CONFLICT, "a request with this Idempotency-Key is in progress");
+      } else {
+        replay(response, existing);
+      }
+      return;
+    }
+
+    ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+    boolean stored = false;
+    try {
+      filterChain.doFilter(new CachedBodyRequest(request, body), captured);
+      if (captured.getStatus() < 500) {
+        idempotencyStore.complete(key, claimToken, new StoredResponse(hash, true, captured.getStatus(),
+            captured.getContentType(), captured.getContentAsByteArray()));
+        stored = true;
+      }
+    } finally {
+      if (!stored) {
+        idempotencyStore.release(key, claimToken);
+      }
+      captured.copyBodyToResponse();
+    }
+  }
+
+  private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+    response.setStatus(stored.status());
+    response.setHeader(REPLAYED_HEADER, "true");
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    if (stored.body() != null) {
+      response.getOutputStream().write(stored.body());
+    }
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, String message)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getWriter().write("{\"error\":\"" + message + "\"}");
+  }
+
+  private static String caller() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null ? authentication.getName() : "anonymous";
+  }
+
+  private static String hash(HttpServletRequest request, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      if (request.getQueryString() != null) {
+        digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+      }
+      digest.update((byte) 0);
+      digest.update(body);
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Serves a request body that was already read for hashing. */
+  private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+          // the whole body is already in memory, so it is available at once
+          try {
+            listener.onDataAvailable();
+            listener.onAllDataRead();
+          } catch (IOException e) {
+            listener.onError(e);
+          }
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      String encoding = getCharacterEncoding();
+      return new BufferedReader(new InputStreamReader(getInputStream(),
+          encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int getContentLength() {
+      return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return body.length;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.nullterminators.project.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Keeps beans with {@code @Scheduled} methods eager when lazy initialization is on (the
+ * fast-start profile). A lazy bean is only created once something needs it, so jobs such as the
+ * payroll job poller or the idempotency purge would otherwise never be scheduled.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+    return (beanName, beanDefinition, beanType) -> hasScheduledMethods(beanType);
+  }
+
+  static boolean hasScheduledMethods(Class<?> beanType) {
+    if (beanType == null) {
+      return false;
+    }
+    return !MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+        (MethodIntrospector.MetadataLookup<Boolean>) method ->
+            AnnotatedElementUtils.getMergedRepeatableAnnotations(method, Scheduled.class,
+                Schedules.class).isEmpty() ? null : Boolean.TRUE).isEmpty();
+  }
+}
@@ -0,0 +1,74 @@
+package com.nullterminators.project.config;
+
+import com.github.benmanes.caffeine.jcache.management.JCacheStatisticsMXBean;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.nullterminators.project.dto.ChangeStamp;
+import com.nullterminators.project.dto.EmployeeImportRow;
+import com.nullterminators.project.dto.HierarchyEdge;
+import com.nullterminators.project.dto.PatientTimelineEntry;
+import com.nullterminators.project.dto.TimeOff;
+import com.nullterminators.project.dto.TimeOffRequest;
+import com.nullterminators.project.model.Patient;
+import com.nullterminators.project.model.PatientRecords;
+import javax.cache.management.CacheStatisticsMXBean;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.NativeDetector;
+
+/**
+ * GraalVM native image support (the native Maven profile). Spring's AOT processing already covers
+ * beans, entities, repositories and controller signatures; the hints here add what it cannot see:
+ * DTOs that Jackson binds from downstream responses or Hibernate builds from JPQL constructor
+ * expressions, and the JCache provider and Typesafe config files behind the second-level cache.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+@RegisterReflectionForBinding({ChangeStamp.class, EmployeeImportRow.class, HierarchyEdge.class,
+    PatientTimelineEntry.class, TimeOff.class, TimeOffRequest.class, Patient.class,
+    PatientRecords.class})
+public class NativeImageConfig {
+
+  private static final String BYTECODE_PROVIDER = "hibernate.bytecode.provider";
+
+  /**
+   * Hibernate cannot generate entity proxies inside a native image. None of the entities has a
+   * lazy association, so proxies are switched off there instead of enhancing the entities. The
+   * setting is set by name because its AvailableSettings constant is deprecated for removal.
+   */
+  @Bean
+  public HibernatePropertiesCustomizer nativeImageBytecodeCustomizer() {
+    return properties -> {
+      if (NativeDetector.inNativeImage()) {
+        properties.put(BYTECODE_PROVIDER, "none");
+      }
+    };
+  }
+
+  static class Hints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      // cache regions (ours) and the provider defaults
+      hints.resources().registerPattern("application.conf").registerPattern("reference.conf");
+      hints.reflection()
+          // both are instantiated by class name from the Hibernate properties
+          .registerType(JCacheRegionFactory.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+          .registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+          // key-type and value-type in reference.conf, loaded with Class.forName
+          .registerType(Object.class)
+          // statistics MBeans registered for monitoring.statistics = true
+          .registerType(JCacheStatisticsMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+          .registerType(CacheStatisticsMXBean.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+          // @JsonAnySetter takes two arguments, so binding hints do not pick it up
+          .registerType(TimeOff.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+          .registerType(TimeOffRequest.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+  }
+}
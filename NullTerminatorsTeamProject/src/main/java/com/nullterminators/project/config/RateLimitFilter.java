@@ -0,0 +1,68 @@
+package com.nullterminators.project.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies {@link RateLimiter} budgets per authenticated user and endpoint group. Registered in
+ * the security filter chain right after HTTP Basic authentication, so the user is known;
+ * unauthenticated requests are keyed by client address. Rejected requests get 429 with a
+ * Retry-After header.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private final RateLimiter rateLimiter;
+
+  public RateLimitFilter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    String group = group(request.getRequestURI().substring(request.getContextPath().length()));
+    if (group != null) {
+      long wait = rateLimiter.tryAcquire(caller(request), group);
+      if (wait > 0) {
+        long seconds = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"rate limit exceeded\"}");
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  static String group(String path) {
+    if (path.startsWith("/client/")) {
+      return "client";
+    }
+    if (path.equals("/patient") || path.startsWith("/patient/")) {
+      return "patient";
+    }
+    if (path.startsWith("/payroll/")) {
+      return "payroll";
+    }
+    return null;
+  }
+
+  private static String caller(HttpServletRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.isAuthenticated()) {
+      return "user:" + authentication.getName();
+    }
+    return "addr:" + request.getRemoteAddr();
+  }
+}
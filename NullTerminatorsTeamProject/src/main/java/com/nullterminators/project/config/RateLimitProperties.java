@@ -0,0 +1,31 @@
+package com.nullterminators.project.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Request rate limits per endpoint group ({@code client}, {@code patient}, {@code payroll}).
+ * Each caller gets its own budget in every group; groups without an entry are not limited.
+ */
+@Data
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+
+  /** Buckets untouched for this long are dropped. */
+  private long idleEvictionMs = 600_000;
+
+  private Map<String, Limit> groups = new LinkedHashMap<>();
+
+  /** Sustained rate and burst size of one group. */
+  @Data
+  public static class Limit {
+
+    private double requestsPerSecond;
+
+    private int burst;
+  }
+}
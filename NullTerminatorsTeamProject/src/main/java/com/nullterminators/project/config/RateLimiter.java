@@ -0,0 +1,77 @@
+package com.nullterminators.project.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lock-free token buckets, implemented as the generic cell rate algorithm: each bucket is a single
+ * theoretical arrival time updated by compare-and-set, so there is no refill thread and no lock.
+ * Buckets live in a {@link ConcurrentHashMap} keyed by caller and group and are evicted once they
+ * have been idle (and therefore full) for a while.
+ */
+@Component
+public class RateLimiter {
+
+  private final Map<String, RateLimitProperties.Limit> limits;
+  private final long idleEvictionNanos;
+  private final LongSupplier clock;
+  private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+  @Autowired
+  public RateLimiter(RateLimitProperties properties) {
+    this(properties, System::nanoTime);
+  }
+
+  RateLimiter(RateLimitProperties properties, LongSupplier clock) {
+    this.limits = properties.isEnabled() ? Map.copyOf(properties.getGroups()) : Map.of();
+    this.idleEvictionNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+    this.clock = clock;
+  }
+
+  /**
+   * Takes one request from the caller's budget in a group.
+   *
+   * @param caller identifies the caller, e.g. the username
+   * @param group endpoint group
+   * @return 0 if the request may proceed, otherwise the nanoseconds until it would be allowed
+   */
+  public long tryAcquire(String caller, String group) {
+    RateLimitProperties.Limit limit = limits.get(group);
+    if (limit == null || limit.getRequestsPerSecond() <= 0) {
+      return 0;
+    }
+    long interval = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRequestsPerSecond());
+    long tolerance = interval * Math.max(limit.getBurst(), 1);
+    AtomicLong arrival = buckets.computeIfAbsent(group + '|' + caller, key -> new AtomicLong(Long.MIN_VALUE));
+
+    while (true) {
+      long now = clock.getAsLong();
+      long current = arrival.get();
+      long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + interval;
+      long wait = next - now - tolerance;
+      if (wait > 0) {
+        return wait;
+      }
+      if (arrival.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /** Drops buckets that have refilled completely and stayed idle past the eviction window. */
+  @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+  public void evictIdle() {
+    long now = clock.getAsLong();
+    buckets.values().removeIf(arrival -> now - arrival.get() > idleEvictionNanos);
+  }
+
+  int size() {
+    return buckets.size();
+  }
+}
@@ -0,0 +1,123 @@
+package com.nullterminators.project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Splits database traffic between the primary and a read replica when
+ * {@code app.datasource.replica.url} is set. Read-only transactions of {@link ReplicaRead} service
+ * methods go to the replica pool and everything else to the writer pool, so long report queries
+ * do not hold connections that writes are waiting for. Without a replica URL Spring Boot's single
+ * datasource is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class ReadReplicaDataSourceConfig {
+
+  @Bean
+  @Primary
+  @ConfigurationProperties("spring.datasource")
+  public DataSourceProperties writerDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource writerDataSource(
+      @Qualifier("writerDataSourceProperties") DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  @ConfigurationProperties("app.datasource.replica")
+  public DataSourceProperties replicaDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean
+  @ConfigurationProperties("app.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Qualifier("replicaDataSourceProperties") DataSourceProperties properties,
+      @Qualifier("writerDataSourceProperties") DataSourceProperties writer) {
+    // the replica normally shares the writer's credentials
+    if (properties.getUsername() == null) {
+      properties.setUsername(writer.getUsername());
+      properties.setPassword(writer.getPassword());
+    }
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  /**
+   * The datasource used by JPA and JDBC. Connections are only fetched when the first statement
+   * runs, by which time the transaction's read-only flag is known.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("writerDataSource") DataSource writerDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+    TransactionRoutingDataSource routing = new TransactionRoutingDataSource();
+    routing.setTargetDataSources(Map.of(Route.WRITER, writerDataSource, Route.REPLICA, replicaDataSource));
+    routing.setDefaultTargetDataSource(writerDataSource);
+    routing.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  @Bean
+  public ReplicaReadAspect replicaReadAspect() {
+    return new ReplicaReadAspect();
+  }
+
+  private enum Route {
+    WRITER,
+    REPLICA
+  }
+
+  private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+  /** Flags the calling thread while a {@link ReplicaRead} method runs. */
+  @Aspect
+  static class ReplicaReadAspect {
+
+    @Around("@annotation(com.nullterminators.project.config.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+      Boolean previous = REPLICA_READ.get();
+      REPLICA_READ.set(Boolean.TRUE);
+      try {
+        return joinPoint.proceed();
+      } finally {
+        if (previous == null) {
+          REPLICA_READ.remove();
+        } else {
+          REPLICA_READ.set(previous);
+        }
+      }
+    }
+  }
+
+  /** Picks the replica for read-only transactions of replica reads and the writer otherwise. */
+  private static class TransactionRoutingDataSource extends AbstractRoutingDataSource {
+    @Override
+    protected Object determineCurrentLookupKey() {
+      return REPLICA_READ.get() != null
+          && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+          ? Route.REPLICA : Route.WRITER;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.nullterminators.project.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only service method whose queries may run on the read replica. Only a method that
+ * both carries this annotation and starts a {@code @Transactional(readOnly = true)} transaction
+ * is routed there; everything else, including Spring Data's own read-only repository
+ * transactions, stays on the primary so a read right after a write sees it.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
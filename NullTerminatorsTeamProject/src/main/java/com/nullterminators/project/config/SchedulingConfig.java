@@ -0,0 +1,11 @@
+package com.nullterminators.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs such as the head-count reconciliation.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
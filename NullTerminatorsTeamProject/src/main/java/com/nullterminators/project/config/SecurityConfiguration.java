@@ -1,7 +1,9 @@
 package com.nullterminators.project.config;
 
+import com.nullterminators.project.service.IdempotencyStore;
 import com.nullterminators.project.service.UserLoginDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -13,18 +15,29 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfiguration {
 
     @Autowired
     private UserLoginDetailsService userLoginDetailsService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     /**
      * This method configures the basic security filter chain. CSRF is disabled.
      * The endpoint for registering a company is permitted for all users. All other
      * endpoints must be authenticated. The default HTTP Basic authentication is used.
+     * Requests are rate limited per user right after authentication, and writes
+     * carrying an Idempotency-Key are de-duplicated once they have been authorized.
      *
      * @param httpSecurity the http security object
      * @return the security filter chain
@@ -45,7 +58,9 @@ public class SecurityConfiguration {
                                         .hasAnyRole("SUPERUSER")
                                         .anyRequest()
                                         .authenticated())
-                .httpBasic(Customizer.withDefaults());
+                .httpBasic(Customizer.withDefaults())
+                .addFilterAfter(new RateLimitFilter(rateLimiter), BasicAuthenticationFilter.class)
+                .addFilterAfter(new IdempotencyFilter(idempotencyStore), AuthorizationFilter.class);
         return httpSecurity.build();
     }
 
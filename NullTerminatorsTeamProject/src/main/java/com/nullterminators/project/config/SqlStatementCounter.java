@@ -0,0 +1,38 @@
+package com.nullterminators.project.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. The count is reset at the
+ * start of every request by {@link SqlStatementMetricsFilter}; the statement itself is passed
+ * through unchanged.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  /** Starts a new count on the current thread. */
+  public static void reset() {
+    COUNT.get()[0] = 0;
+  }
+
+  /**
+   * Returns the number of statements prepared on the current thread since the last reset.
+   *
+   * @return statement count
+   */
+  public static int get() {
+    return COUNT.get()[0];
+  }
+
+  /** Releases the counter of the current thread. */
+  public static void clear() {
+    COUNT.remove();
+  }
+}
@@ -0,0 +1,95 @@
+package com.nullterminators.project.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements each request issues as the {@code http.server.sql.statements}
+ * distribution, tagged by endpoint. With {@code sql-metrics.expose-header} set the count is also
+ * returned in an {@code X-SQL-Count} header. The body is not buffered, so the header carries the
+ * statements issued before the response started; the metric counts the whole request.
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+  static final String HEADER = "X-SQL-Count";
+
+  private final MeterRegistry meterRegistry;
+  private final boolean exposeHeader;
+
+  public SqlStatementMetricsFilter(MeterRegistry meterRegistry,
+      @Value("${sql-metrics.expose-header:false}") boolean exposeHeader) {
+    this.meterRegistry = meterRegistry;
+    this.exposeHeader = exposeHeader;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    SqlStatementCounter.reset();
+    try {
+      filterChain.doFilter(request, exposeHeader ? new CountHeaderResponse(response) : response);
+    } finally {
+      int statements = SqlStatementCounter.get();
+      SqlStatementCounter.clear();
+      DistributionSummary.builder("http.server.sql.statements")
+          .description("SQL statements issued per request")
+          .tag("method", request.getMethod())
+          .tag("uri", endpoint(request))
+          .register(meterRegistry)
+          .record(statements);
+      if (exposeHeader && !response.isCommitted()) {
+        response.setHeader(HEADER, Integer.toString(statements));
+      }
+    }
+  }
+
+  private static String endpoint(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : "UNKNOWN";
+  }
+
+  /** Sets the count header just before the body is written, while headers can still change. */
+  private static final class CountHeaderResponse extends HttpServletResponseWrapper {
+
+    CountHeaderResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    private void setCountHeader() {
+      if (!isCommitted()) {
+        setHeader(HEADER, Integer.toString(SqlStatementCounter.get()));
+      }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      setCountHeader();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      setCountHeader();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      setCountHeader();
+      super.flushBuffer();
+    }
+  }
+}
@@ -1,14 +1,16 @@
 package com.nullterminators.project.controller;
 
 import com.nullterminators.project.service.EmployeeHierarchyService;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -32,8 +34,7 @@ public class EmployeeHierarchyClientController {
   @GetMapping("/subordinates/{employeeId}")
   public ResponseEntity<?> getSubordinates(@PathVariable Long employeeId) {
     try {
-      List<Long> subordinates = hierarchyService.getSubordinates(employeeId);
-      return ResponseEntity.ok(subordinates);
+      return hierarchyService.getSubordinates(employeeId);
     } catch (Exception e) {
       return hierarchyService.handleException(e);
     }
@@ -61,14 +62,22 @@ public class EmployeeHierarchyClientController {
    * Gets the subtree of an employee with the given id.
    *
    * @param employeeId the id of the employee
-   * @return the subtree of the given employee
+   * @param ifNoneMatch entity tag of the caller's copy, passed through to the hierarchy service
+   * @param response the response the subtree is streamed to
+   * @return null once the subtree (or a 304) has been streamed, otherwise an error response
    */
   @GetMapping("/tree/{employeeId}")
-  public ResponseEntity<?> getSubtree(@PathVariable Long employeeId) {
+  public ResponseEntity<?> getSubtree(@PathVariable Long employeeId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      HttpServletResponse response) {
     try {
-      Object subtree = hierarchyService.getSubtree(employeeId);
-      return ResponseEntity.ok(subtree);
+      hierarchyService.streamSubtree(employeeId, ifNoneMatch, response);
+      return null;
     } catch (Exception e) {
+      if (response.isCommitted()) {
+        return null;
+      }
+      response.resetBuffer();
       return hierarchyService.handleException(e);
     }
   }
@@ -108,10 +117,10 @@ public class EmployeeHierarchyClientController {
 
   /**
    * Deletes an employee with the given ID and reassigns their subordinates to the employee's
-   * supervisor. This method performs the following operations: 1. Fetches the supervisor of the
-   * employee. 2. Fetches the subordinates of the employee. 3. If the employee has subordinates but
-   * no supervisor, returns a BAD_REQUEST response. 4. If the employee has a supervisor, reassigns
-   * all subordinates to the supervisor. 5. Removes the supervisor-employee edge. 6. Returns an OK
+   * supervisor. This method performs the following operations: 1. Fetches the supervisor and the
+   * subordinates of the employee concurrently. 2. If the employee has subordinates but
+   * no supervisor, returns a BAD_REQUEST response. 3. If the employee has a supervisor, reassigns
+   * all subordinates to the supervisor. 4. Removes the supervisor-employee edge. 5. Returns an OK
    * response upon successful deletion and reassignment.
    *
    * @param employeeId the ID of the employee to be deleted
@@ -120,13 +129,11 @@ public class EmployeeHierarchyClientController {
   @DeleteMapping("/delete/{employeeId}")
   public ResponseEntity<?> deleteEmployeeAndReassign(@PathVariable Long employeeId) {
     try {
-      List<Long> rawSubordinates = hierarchyService.getSubordinates(employeeId);
-      List<Long> subordinates = new ArrayList<>();
-      for (Object item : rawSubordinates) {
-        subordinates.add(Long.valueOf(((LinkedHashMap) item).get("toEmployeeId").toString()));
-      }
-
-      Long supervisor = hierarchyService.getSupervisor(employeeId);
+      CompletableFuture<List<Long>> subordinatesCall =
+          hierarchyService.getSubordinateIdsAsync(employeeId);
+      CompletableFuture<Long> supervisorCall = hierarchyService.getSupervisorAsync(employeeId);
+      List<Long> subordinates = EmployeeHierarchyService.join(subordinatesCall);
+      Long supervisor = EmployeeHierarchyService.join(supervisorCall);
       if (supervisor == null && !subordinates.isEmpty()) {
         return ResponseEntity.badRequest()
             .body("Cannot delete employee with subordinates but no supervisor.");
@@ -1,13 +1,24 @@
 package com.nullterminators.project.controller;
 
+import com.nullterminators.project.model.OnboardingJob;
 import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
+import com.nullterminators.project.service.EmployeeBulkImportService;
+import com.nullterminators.project.service.EmployeeOnboardingService;
 import com.nullterminators.project.service.EmployeeProfileManagementService;
 import com.nullterminators.project.service.UserLoginDetailsService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +36,12 @@ public class EmployeeProfileController {
   @Autowired
   private EmployeeProfileManagementService employeeProfileManagementService;
 
+  @Autowired
+  private EmployeeOnboardingService employeeOnboardingService;
+
+  @Autowired
+  private EmployeeBulkImportService employeeBulkImportService;
+
   /**
    * Creates employee and saves it in the client DB.
    * @param name Name of new employee
@@ -66,6 +83,82 @@ public class EmployeeProfileController {
       }
   }
 
+  /**
+   * Accepts an employee for asynchronous onboarding. The remote profile, login and client row are
+   * created by a background worker; progress is reported by the onboarding status endpoint.
+   * @param idempotencyKey optional key so that retried submissions map to the same job
+   * @return id and status of the onboarding job
+   */
+  @PostMapping("/onboard")
+  public ResponseEntity<?> onboardEmployee(
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+      , @RequestParam String name, @RequestParam String phoneNumber
+      , @RequestParam String gender, @RequestParam int age, @RequestParam LocalDate startDate
+      , @RequestParam String designation, @RequestParam String email, @RequestParam String emergencyContact
+      , @RequestParam int baseSalary, @RequestParam String username, @RequestParam String password) {
+    try {
+      OnboardingJob job = employeeOnboardingService.submit(idempotencyKey, name, phoneNumber
+          , gender, age, startDate, designation, email, emergencyContact, baseSalary, username
+          , password);
+      return ResponseEntity.accepted()
+          .location(URI.create("/client/employeeProfile/onboard/" + job.getId()))
+          .body(employeeOnboardingService.describe(job));
+    } catch (Exception e) {
+      return new ResponseEntity<>("Error in client service : " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Reports the progress of an onboarding job.
+   * @param jobId id of the onboarding job
+   * @return status of the job
+   */
+  @GetMapping("/onboard/{jobId}")
+  public ResponseEntity<?> getOnboardingStatus(@PathVariable Long jobId) {
+    try {
+      return employeeOnboardingService.getJob(jobId)
+          .<ResponseEntity<?>>map(job -> new ResponseEntity<>(employeeOnboardingService.describe(job)
+              , HttpStatus.OK))
+          .orElseGet(() -> new ResponseEntity<>("Onboarding job not found.", HttpStatus.NOT_FOUND));
+    } catch (Exception e) {
+      return new ResponseEntity<>("Error in client service : " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Imports employees in bulk from an uploaded CSV (with a header row) or NDJSON file. Each row
+   * carries the same fields as createNewEmployeeAndAddToClientDB.
+   * @param file uploaded CSV or NDJSON file
+   * @return summary of the import and the location of its per-row result file
+   */
+  @PostMapping(value = "/bulkImport", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<?> bulkImportEmployees(@RequestParam("file") MultipartFile file) {
+    String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+    EmployeeBulkImportService.Format format = filename.endsWith(".ndjson") || filename.endsWith(".jsonl")
+        || "application/x-ndjson".equals(file.getContentType())
+        ? EmployeeBulkImportService.Format.NDJSON : EmployeeBulkImportService.Format.CSV;
+    try (InputStream input = file.getInputStream()) {
+      return new ResponseEntity<>(employeeBulkImportService.importEmployees(input, format)
+          , HttpStatus.OK);
+    } catch (Exception e) {
+      return new ResponseEntity<>("Error in client service : " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Downloads the per-row result file of a bulk import.
+   * @param importId id returned by the bulk import
+   * @return CSV with the outcome of every row
+   */
+  @GetMapping(value = "/bulkImport/{importId}/result", produces = "text/csv")
+  public ResponseEntity<?> getBulkImportResult(@PathVariable String importId) {
+    Path resultFile = employeeBulkImportService.resultFile(importId);
+    if (resultFile == null || !Files.exists(resultFile)) {
+      return new ResponseEntity<>("Import result not found.", HttpStatus.NOT_FOUND);
+    }
+    return new ResponseEntity<>(new FileSystemResource(resultFile), HttpStatus.OK);
+  }
+
   /**
    * Returns list of IDs of employees in client.
    * @return
@@ -88,18 +181,38 @@ public class EmployeeProfileController {
     }
   }
 
+  /**
+   * Returns the head-count of every designation in the client.
+   * @return list of designation and total pairs
+   */
+  @GetMapping("/designationCounts")
+  public ResponseEntity<?> getDesignationCounts() {
+    try{
+      return new ResponseEntity<>(employeeProfileManagementService.getDesignationCounts()
+          , HttpStatus.OK);
+    } catch (Exception e) {
+      return new ResponseEntity<>("Error in client service : " + e.getMessage()
+          , HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
   /**
    * Get employee by id.
    * @param id
    * @return
    */
   @GetMapping("/getEmployee/{id}")
-  public ResponseEntity<?> getEmployeeInClient(@PathVariable int id) {
+  public ResponseEntity<?> getEmployeeInClient(@PathVariable int id
+      , HttpServletResponse response) {
     try{
-      String employee = employeeProfileManagementService
-          .getEmployee(id);
-      return new ResponseEntity<>(employee, HttpStatus.OK);
+      // streamed as the employee profile service sent it, without decoding
+      employeeProfileManagementService.streamEmployee(id, response);
+      return null;
     } catch (Exception e) {
+      if (response.isCommitted()) {
+        return null;
+      }
+      response.resetBuffer();
       return new ResponseEntity<>("Error in client service : " + e.getMessage()
           , HttpStatus.INTERNAL_SERVER_ERROR);
     }
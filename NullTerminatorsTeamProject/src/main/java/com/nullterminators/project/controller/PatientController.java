@@ -1,28 +1,38 @@
 package com.nullterminators.project.controller;
 
-import com.nullterminators.project.model.EmployeeProfileManagement;
+import com.nullterminators.project.dto.PatientTimelineEntry;
 import com.nullterminators.project.model.Patient;
 import com.nullterminators.project.model.PatientRecords;
-import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
-import com.nullterminators.project.service.EmployeeProfileManagementService;
+import com.nullterminators.project.service.DesignationIndex;
 import com.nullterminators.project.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @RestController
 public class PatientController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final LocalDate TIMELINE_START = LocalDate.of(1, 1, 1);
+    private static final LocalDate TIMELINE_END = LocalDate.of(9999, 12, 31);
+
     @Autowired
     private PatientService patientService;
 
     @Autowired
-    private EmployeeProfileManagementRepository employeeProfileManagementRepository;
+    private DesignationIndex designationIndex;
 
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<?> getPatientById(@PathVariable(value = "patientId") Integer patientId) {
@@ -34,7 +44,7 @@ public class PatientController {
             );
         }
         return new ResponseEntity<>(
-                Map.of("response", patientService.getPatientById(patientId)),
+                Map.of("response", patient),
                 HttpStatus.OK
         );
     }
@@ -48,33 +58,56 @@ public class PatientController {
         );
     }
 
+    @GetMapping("/patient/search")
+    public ResponseEntity<?> searchPatients(@RequestParam("q") String query,
+                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            return new ResponseEntity<>(
+                    Map.of("error", "search query is empty"),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        try {
+            return new ResponseEntity<>(
+                    pageResponse(patientService.searchPatients(query.trim(), pageRequest(page, size))),
+                    HttpStatus.OK
+            );
+        }
+        catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
     @PatchMapping("/patient/{patientId}/updatePhoneNumber")
     public ResponseEntity<?> updatePatientPhoneNumberById(@PathVariable(value = "patientId") Integer patientId, @RequestBody Map<String, String> body) {
         try {
-            Patient patient = patientService.getPatientById(patientId);
-            if (patient == null) {
-                return new ResponseEntity<>(
-                        Map.of("error", "patient not found"),
-                        HttpStatus.NOT_FOUND
-                );
-            }
-
             String phoneNumber = body.get("phoneNumber");
             if (phoneNumber == null || phoneNumber.isEmpty()) {
+                if (patientService.getPatientById(patientId) == null) {
+                    return new ResponseEntity<>(
+                            Map.of("error", "patient not found"),
+                            HttpStatus.NOT_FOUND
+                    );
+                }
                 return new ResponseEntity<>(
                         Map.of("error", "phone number is empty"),
                         HttpStatus.BAD_REQUEST
                 );
             }
 
-            patient.setPhoneNumber(body.get("phoneNumber"));
-            if(patientService.updatePatient(patient)) {
+            if (patientService.updatePhoneNumber(patientId, phoneNumber) == 0) {
                 return new ResponseEntity<>(
-                        Map.of("response", "patient phone number is updated successfully."),
-                        HttpStatus.OK
+                        Map.of("error", "patient not found"),
+                        HttpStatus.NOT_FOUND
                 );
             }
-
+            return new ResponseEntity<>(
+                    Map.of("response", "patient phone number is updated successfully."),
+                    HttpStatus.OK
+            );
+        }
+        catch (DataIntegrityViolationException e) {
             return new ResponseEntity<>(
                     Map.of("error", "phone number already exists"),
                     HttpStatus.BAD_REQUEST
@@ -128,7 +161,8 @@ public class PatientController {
     }
 
     @GetMapping("/patient/{patientId}/records")
-    public ResponseEntity<?> getPatientRecordsByPatientId(@PathVariable(value = "patientId") Integer patientId) {
+    public ResponseEntity<?> getPatientRecordsByPatientId(@PathVariable(value = "patientId") Integer patientId,
+                                                          WebRequest request) {
         try {
             Patient patient = patientService.getPatientById(patientId);
             if (patient == null) {
@@ -137,6 +171,10 @@ public class PatientController {
                         HttpStatus.NOT_FOUND
                 );
             }
+            // answer 304 from the change stamp before loading and serializing the records
+            if (request.checkNotModified(patientService.getPatientRecordsStamp(patientId).etag())) {
+                return null;
+            }
             return new ResponseEntity<>(
                     Map.of("response", patientService.getPatientRecordsByPatientId(patientId)),
                     HttpStatus.OK
@@ -147,11 +185,73 @@ public class PatientController {
         }
     }
 
+    @GetMapping("/patient/{patientId}/timeline")
+    public ResponseEntity<?> getPatientTimeline(@PathVariable(value = "patientId") Integer patientId,
+                                                @RequestParam(value = "from", required = false) String from,
+                                                @RequestParam(value = "to", required = false) String to,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        LocalDate afterDate;
+        Integer afterId;
+        try {
+            fromDate = from == null ? TIMELINE_START : LocalDate.parse(from);
+            toDate = to == null ? TIMELINE_END : LocalDate.parse(to);
+            if (cursor == null) {
+                afterDate = fromDate;
+                afterId = Integer.MIN_VALUE;
+            } else {
+                int separator = cursor.indexOf('_');
+                afterDate = LocalDate.parse(cursor.substring(0, separator));
+                afterId = Integer.valueOf(cursor.substring(separator + 1));
+            }
+        }
+        catch (RuntimeException e) {
+            return new ResponseEntity<>(
+                    Map.of("error", "invalid date or cursor"),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        try {
+            Patient patient = patientService.getPatientById(patientId);
+            if (patient == null) {
+                return new ResponseEntity<>(
+                        Map.of("error", "patient not found"),
+                        HttpStatus.NOT_FOUND
+                );
+            }
+
+            int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+            // fetch one extra row to know whether another page follows
+            List<PatientTimelineEntry> entries = patientService.getPatientTimeline(
+                    patientId, fromDate, toDate, afterDate, afterId, pageSize + 1);
+            String nextCursor = null;
+            if (entries.size() > pageSize) {
+                entries = entries.subList(0, pageSize);
+                PatientTimelineEntry last = entries.get(pageSize - 1);
+                nextCursor = last.date() + "_" + last.id();
+            }
+
+            Map<String, Object> timeline = new LinkedHashMap<>();
+            timeline.put("patient", patient);
+            timeline.put("records", entries);
+            timeline.put("nextCursor", nextCursor);
+            return new ResponseEntity<>(
+                    Map.of("response", timeline),
+                    HttpStatus.OK
+            );
+        }
+        catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
     @GetMapping("/patient/records/getByDoctorId/{doctorId}")
     public ResponseEntity<?> getPatientRecordsByDoctorId(@PathVariable(value = "doctorId") Integer doctorId) {
         try {
-            EmployeeProfileManagement doctor = employeeProfileManagementRepository.findById(doctorId).orElse(null);
-            if (doctor == null || !doctor.getDesignation().equalsIgnoreCase("doctor")) {
+            if (!designationIndex.isDoctor(doctorId)) {
                 return new ResponseEntity<>(
                         Map.of("error", "doctor not found"),
                         HttpStatus.NOT_FOUND
@@ -181,6 +281,27 @@ public class PatientController {
         }
     }
 
+    @GetMapping("/patient/records/search")
+    public ResponseEntity<?> searchPatientRecords(@RequestParam("q") String query,
+                                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                                  @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            return new ResponseEntity<>(
+                    Map.of("error", "search query is empty"),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        try {
+            return new ResponseEntity<>(
+                    pageResponse(patientService.searchPatientRecords(query.trim(), pageRequest(page, size))),
+                    HttpStatus.OK
+            );
+        }
+        catch (Exception e) {
+            return handleException(e);
+        }
+    }
+
     @GetMapping("/patient/record/{Id}")
     public ResponseEntity<?> getPatientRecordsById(@PathVariable(value = "Id") Integer Id) {
         try {
@@ -225,23 +346,29 @@ public class PatientController {
     @PatchMapping("/patient/record/{Id}/updatePrescription")
     public ResponseEntity<?> updatePatientRecordsPrescription(@PathVariable(value = "Id") Integer Id, @RequestBody Map<String, String> body) {
         try {
-            PatientRecords record = patientService.getPatientRecordsById(Id);
-            if (record == null) {
+            String prescription = body.get("prescription");
+            if (prescription == null) {
+                if (!patientService.patientRecordExists(Id)) {
+                    return new ResponseEntity<>(
+                            Map.of("error", "patient record not found"),
+                            HttpStatus.NOT_FOUND
+                    );
+                }
                 return new ResponseEntity<>(
-                        Map.of("error", "patient record not found"),
-                        HttpStatus.NOT_FOUND
+                        Map.of("response", "patient record update failed."),
+                        HttpStatus.BAD_REQUEST
                 );
             }
-            record.setPrescription(body.get("prescription"));
-            if (patientService.updatePatientRecords(record)) {
+
+            if (patientService.updatePrescription(Id, prescription) == 0) {
                 return new ResponseEntity<>(
-                        Map.of("response", "patient record is updated successfully."),
-                        HttpStatus.OK
+                        Map.of("error", "patient record not found"),
+                        HttpStatus.NOT_FOUND
                 );
             }
             return new ResponseEntity<>(
-                    Map.of("response", "patient record update failed."),
-                    HttpStatus.BAD_REQUEST
+                    Map.of("response", "patient record is updated successfully."),
+                    HttpStatus.OK
             );
         }
         catch (Exception e) {
@@ -252,24 +379,29 @@ public class PatientController {
     @PatchMapping("/patient/record/{Id}/updateNotes")
     public ResponseEntity<?> updatePatientRecordsNote(@PathVariable(value = "Id") Integer Id, @RequestBody Map<String, String> body) {
         try {
-            PatientRecords record = patientService.getPatientRecordsById(Id);
-            if (record == null) {
+            String notes = body.get("notes");
+            if (notes == null) {
+                if (!patientService.patientRecordExists(Id)) {
+                    return new ResponseEntity<>(
+                            Map.of("error", "patient record not found"),
+                            HttpStatus.NOT_FOUND
+                    );
+                }
                 return new ResponseEntity<>(
-                        Map.of("error", "patient record not found"),
-                        HttpStatus.NOT_FOUND
+                        Map.of("response", "patient record updated failed."),
+                        HttpStatus.BAD_REQUEST
                 );
             }
 
-            record.setNotes(body.get("notes"));
-            if(patientService.updatePatientRecords(record)) {
+            if (patientService.updateNotes(Id, notes) == 0) {
                 return new ResponseEntity<>(
-                        Map.of("response", "patient record is updated successfully."),
-                        HttpStatus.OK
+                        Map.of("error", "patient record not found"),
+                        HttpStatus.NOT_FOUND
                 );
             }
             return new ResponseEntity<>(
-                    Map.of("response", "patient record updated failed."),
-                    HttpStatus.BAD_REQUEST
+                    Map.of("response", "patient record is updated successfully."),
+                    HttpStatus.OK
             );
         }
         catch (Exception e) {
@@ -287,8 +419,7 @@ public class PatientController {
             );
         }
 
-        EmployeeProfileManagement doctor = employeeProfileManagementRepository.findById(record.getDoctorId()).orElse(null);
-        if (doctor == null || !doctor.getDesignation().equalsIgnoreCase("doctor")) {
+        if (!designationIndex.isDoctor(record.getDoctorId())) {
             return new ResponseEntity<>(
                     Map.of("error", "doctor not found"),
                     HttpStatus.NOT_FOUND
@@ -313,6 +444,19 @@ public class PatientController {
 
     }
 
+    private static Pageable pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private static Map<String, Object> pageResponse(Page<?> results) {
+        return Map.of(
+                "response", results.getContent(),
+                "page", results.getNumber(),
+                "size", results.getSize(),
+                "total", results.getTotalElements()
+        );
+    }
+
     private ResponseEntity<?> handleException(Exception e) {
         System.out.println(e.toString());
     return new ResponseEntity<>(
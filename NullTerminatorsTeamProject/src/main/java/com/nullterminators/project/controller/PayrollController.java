@@ -1,16 +1,25 @@
 package com.nullterminators.project.controller;
 
+import com.nullterminators.project.dto.ChangeStamp;
+import com.nullterminators.project.enums.PayrollJobType;
 import com.nullterminators.project.enums.PayrollRequestsStatus;
+import com.nullterminators.project.model.PayrollJob;
+import com.nullterminators.project.service.PayrollJobService;
 import com.nullterminators.project.service.PayrollService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.net.URI;
 
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.util.Pair;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * API Endpoints for Payroll.
@@ -18,11 +27,15 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 public class PayrollController {
 
+  private static final String SMILE = "application/x-jackson-smile";
+
   private final PayrollService payrollService;
+  private final PayrollJobService payrollJobService;
 
   @Autowired
-  public PayrollController(PayrollService payrollService) {
+  public PayrollController(PayrollService payrollService, PayrollJobService payrollJobService) {
     this.payrollService = payrollService;
+    this.payrollJobService = payrollJobService;
   }
 
   /**
@@ -34,9 +47,18 @@ public class PayrollController {
    *                         details and an HTTP 200 response or, an appropriate message
    *                         indicating the proper response.
    */
-  @GetMapping(value = "/client/payroll/{employeeId}", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<?> getPayrollByEmployeeId(@PathVariable("employeeId") Integer employeeId) {
+  @GetMapping(value = "/client/payroll/{employeeId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE, SMILE})
+  public ResponseEntity<?> getPayrollByEmployeeId(@PathVariable("employeeId") Integer employeeId,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      HttpServletResponse response) {
     try {
+      // JSON callers get the payroll service's bytes as they are; the cache and binary formats
+      // need the decoded body
+      if (!prefersBinaryFormat(accept) && !payrollService.isPayrollCached(employeeId)) {
+        payrollService.streamPayrollByEmployeeId(employeeId, response);
+        return null;
+      }
       Pair<HttpStatus, Object> result = payrollService.getPayrollByEmployeeId(employeeId);
       if (result.getFirst() == HttpStatus.INTERNAL_SERVER_ERROR) {
         return new ResponseEntity<>(Map.of("response", "Internal Server Error in Service"),
@@ -44,7 +66,12 @@ public class PayrollController {
       }
       return new ResponseEntity<>(result.getSecond(), result.getFirst());
     } catch (Exception e) {
-      return handleException(e);
+      if (response.isCommitted()) {
+        return null;
+      }
+      response.resetBuffer();
+      return new ResponseEntity<>(Map.of("response", "Internal Server Error in Service"),
+              HttpStatus.INTERNAL_SERVER_ERROR);
     }
   }
 
@@ -208,9 +235,84 @@ public class PayrollController {
     }
   }
 
-  @GetMapping(value = "/client/payroll/{employeeId}/getRequests", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<?> getRequests(@PathVariable("employeeId") Integer employeeId) {
+  /**
+   * Accepts a payroll generation run for the company. The run happens in the background and its
+   * outcome is reported by the payroll job endpoint.
+   *
+   * @param updates       A (@code Map) with the month and year to generate the payrolls for.
+   * @return              A (@code ResponseEntity) with the job and an HTTP 202 response, or an
+   *                      HTTP 400 response if the month or year is invalid.
+   */
+  @PostMapping(value = "/payroll/jobs/generatePayroll", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> submitGeneratePayroll(@RequestBody Map<String, Object> updates) {
+    return submitPayrollJob(PayrollJobType.GENERATE, updates);
+  }
+
+  /**
+   * Accepts a payroll deletion run for the company. The run happens in the background and its
+   * outcome is reported by the payroll job endpoint.
+   *
+   * @param updates       A (@code Map) with the month and year to delete the payrolls for.
+   * @return              A (@code ResponseEntity) with the job and an HTTP 202 response, or an
+   *                      HTTP 400 response if the month or year is invalid.
+   */
+  @PostMapping(value = "/payroll/jobs/deletePayroll", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> submitDeletePayroll(@RequestBody Map<String, Object> updates) {
+    return submitPayrollJob(PayrollJobType.DELETE, updates);
+  }
+
+  /**
+   * Reports the status of a payroll job, including the payroll service response once finished.
+   *
+   * @param jobId         A (@code Long) representing the id of the payroll job.
+   * @return              A (@code ResponseEntity) with the job and an HTTP 200 response, or an
+   *                      HTTP 404 response if there is no such job.
+   */
+  @GetMapping(value = "/payroll/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> getPayrollJob(@PathVariable("jobId") Long jobId) {
+    try {
+      return payrollJobService.getJob(jobId)
+          .<ResponseEntity<?>>map(job -> new ResponseEntity<>(payrollJobService.describe(job),
+              HttpStatus.OK))
+          .orElseGet(() -> new ResponseEntity<>(Map.of("response", "Payroll job not found"),
+              HttpStatus.NOT_FOUND));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Cancels a payroll job that has not started yet.
+   *
+   * @param jobId         A (@code Long) representing the id of the payroll job.
+   * @return              A (@code ResponseEntity) with the cancelled job and an HTTP 200
+   *                      response, an HTTP 404 response if there is no such job or an HTTP 409
+   *                      response if the job has already started.
+   */
+  @DeleteMapping(value = "/payroll/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> cancelPayrollJob(@PathVariable("jobId") Long jobId) {
+    try {
+      boolean cancelled = payrollJobService.cancel(jobId);
+      return payrollJobService.getJob(jobId)
+          .<ResponseEntity<?>>map(job -> new ResponseEntity<>(payrollJobService.describe(job),
+              cancelled ? HttpStatus.OK : HttpStatus.CONFLICT))
+          .orElseGet(() -> new ResponseEntity<>(Map.of("response", "Payroll job not found"),
+              HttpStatus.NOT_FOUND));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  @GetMapping(value = "/client/payroll/{employeeId}/getRequests", produces = {MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE, SMILE})
+  public ResponseEntity<?> getRequests(@PathVariable("employeeId") Integer employeeId,
+                                       WebRequest request) {
     try {
+      // an empty list is answered with 404, so only non-empty lists carry an ETag
+      ChangeStamp stamp = payrollService.getRequestsStamp(employeeId);
+      if (stamp.count() > 0 && request.checkNotModified(stamp.etag())) {
+        return null;
+      }
       Pair<PayrollRequestsStatus, List<Map<String, Object>>> result =
               payrollService.getRequests(employeeId);
       if (result.getFirst() == PayrollRequestsStatus.EMPLOYEE_NOT_FOUND) {
@@ -282,7 +384,8 @@ public class PayrollController {
     }
   }
 
-  @GetMapping(value = "/payroll/getPendingRequests", produces = MediaType.APPLICATION_JSON_VALUE)
+  @GetMapping(value = "/payroll/getPendingRequests", produces = {MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE, SMILE})
   public ResponseEntity<?> getRequests() {
     try {
       Pair<PayrollRequestsStatus, List<Map<String, Object>>> result =
@@ -296,6 +399,39 @@ public class PayrollController {
     }
   }
 
+  private ResponseEntity<?> submitPayrollJob(PayrollJobType type, Map<String, Object> updates) {
+    try {
+      PayrollJob job = payrollJobService.submit(type, updates);
+      if (job == null) {
+        return new ResponseEntity<>(Map.of("response", "Invalid month or year"),
+            HttpStatus.BAD_REQUEST);
+      }
+      return ResponseEntity.accepted()
+          .location(URI.create("/payroll/jobs/" + job.getId()))
+          .body(payrollJobService.describe(job));
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  private static boolean prefersBinaryFormat(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return false;
+    }
+    List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (MediaType type : accepted) {
+      if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return false;
+      }
+      if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)
+          || type.isCompatibleWith(MediaType.valueOf(SMILE))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private ResponseEntity<?> handleException(Exception e) {
     return new ResponseEntity<>(Map.of("response", e.toString()),
         HttpStatus.INTERNAL_SERVER_ERROR);
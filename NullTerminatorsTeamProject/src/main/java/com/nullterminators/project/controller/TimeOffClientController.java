@@ -1,9 +1,12 @@
 package com.nullterminators.project.controller;
 
+import com.nullterminators.project.dto.TimeOff;
+import com.nullterminators.project.dto.TimeOffRequest;
 import com.nullterminators.project.service.TimeOffClientService;
 import java.util.List;
-import java.util.Map;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -38,7 +41,7 @@ public class TimeOffClientController {
     public ResponseEntity<?> getTimeOffByEmployeeId(@PathVariable Integer requestorEmployeeId,
                                                     @PathVariable Integer requestedEmployeeId) {
         try {
-            List<Object> timeOffs = timeOffClientService.getTimeOffByEmployeeId(requestorEmployeeId, requestedEmployeeId);
+            List<TimeOff> timeOffs = timeOffClientService.getTimeOffByEmployeeId(requestorEmployeeId, requestedEmployeeId);
             return ResponseEntity.ok(timeOffs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching time-offs: " + e.getMessage());
@@ -63,23 +66,52 @@ public class TimeOffClientController {
             @RequestParam("endDate") String endDate
     ) {
         try {
-            List<Object> timeOffs = timeOffClientService.getTimeOffInRange(requestorEmployeeId, requestedEmployeeId, startDate, endDate);
+            List<TimeOff> timeOffs = timeOffClientService.getTimeOffInRange(requestorEmployeeId, requestedEmployeeId, startDate, endDate);
             return ResponseEntity.ok(timeOffs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error fetching time-offs in range: " + e.getMessage());
         }
     }
 
+    /**
+     * GET /client/timeoff/team/{requestorEmployeeId}/{managerId}?start=&end= - Retrieves a
+     * day-by-employee availability matrix for everyone below the given manager. Only the manager
+     * and their supervisors may view it.
+     *
+     * @param requestorEmployeeId the ID of the employee making the request
+     * @param managerId the ID of the manager whose team is requested
+     * @param start the first day of the range (in yyyy-MM-dd format)
+     * @param end the last day of the range (in yyyy-MM-dd format)
+     * @return ResponseEntity containing the availability matrix, 403 if the requestor may not view
+     *     the team, or an error message
+     */
+    @GetMapping("/team/{requestorEmployeeId}/{managerId}")
+    public ResponseEntity<?> getTeamAvailability(
+            @PathVariable Integer requestorEmployeeId,
+            @PathVariable Integer managerId,
+            @RequestParam("start") String start,
+            @RequestParam("end") String end
+    ) {
+        try {
+            return ResponseEntity.ok(
+                    timeOffClientService.getTeamAvailability(requestorEmployeeId, managerId, start, end));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error fetching team availability: " + e.getMessage());
+        }
+    }
+
     /**
      * POST /client/timeoff/create - Creates a new time-off request for an employee.
      *
-     * @param timeOff a map containing the time-off details
+     * @param timeOff the time-off details
      * @return ResponseEntity containing the created time-off details or an error message
      */
     @PostMapping("/create")
-    public ResponseEntity<?> createTimeOffRequest(@RequestBody Map<String, Object> timeOff) {
+    public ResponseEntity<?> createTimeOffRequest(@RequestBody TimeOffRequest timeOff) {
         try {
-            Object createdTimeOff = timeOffClientService.createTimeOffRequest(timeOff);
+            TimeOff createdTimeOff = timeOffClientService.createTimeOffRequest(timeOff);
             return ResponseEntity.ok(createdTimeOff);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating time-off request: " + e.getMessage());
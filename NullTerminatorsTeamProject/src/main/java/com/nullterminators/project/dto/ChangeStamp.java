@@ -0,0 +1,18 @@
+package com.nullterminators.project.dto;
+
+/**
+ * Aggregate fingerprint of a set of versioned rows. Inserts change the count and the highest id,
+ * deletes change the count and updates change the version sum, so any change to the set gives a
+ * different stamp. It is computed by the database, so every instance derives the same ETag.
+ */
+public record ChangeStamp(Long count, Long maxId, Long versionSum) {
+
+  /**
+   * Returns the stamp as a strong entity tag.
+   *
+   * @return quoted ETag value
+   */
+  public String etag() {
+    return "\"" + count + "-" + maxId + "-" + versionSum + "\"";
+  }
+}
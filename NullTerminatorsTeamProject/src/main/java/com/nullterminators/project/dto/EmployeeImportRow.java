@@ -0,0 +1,53 @@
+package com.nullterminators.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.LocalDate;
+
+/**
+ * One employee in a bulk onboarding upload, with the same fields as
+ * {@code createNewEmployeeAndAddToClientDB}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record EmployeeImportRow(
+    String name,
+    String phoneNumber,
+    String gender,
+    Integer age,
+    LocalDate startDate,
+    String designation,
+    String email,
+    String emergencyContact,
+    Integer baseSalary,
+    String username,
+    String password) {
+
+  /**
+   * Checks that every required field is present.
+   *
+   * @return a description of the first problem found, or null if the row is complete
+   */
+  public String validate() {
+    if (name == null || name.isBlank()) {
+      return "name is required";
+    }
+    if (age == null) {
+      return "age is required";
+    }
+    if (startDate == null) {
+      return "startDate is required";
+    }
+    if (designation == null || designation.isBlank()) {
+      return "designation is required";
+    }
+    if (baseSalary == null) {
+      return "baseSalary is required";
+    }
+    if (username == null || username.isBlank()) {
+      return "username is required";
+    }
+    if (password == null || password.isEmpty()) {
+      return "password is required";
+    }
+    return null;
+  }
+}
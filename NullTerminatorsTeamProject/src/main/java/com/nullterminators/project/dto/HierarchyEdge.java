@@ -0,0 +1,10 @@
+package com.nullterminators.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Supervisor-to-employee edge as returned by the hierarchy service. Only the subordinate's id is
+ * read; the rest of the edge is skipped while decoding.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record HierarchyEdge(Long toEmployeeId) {}
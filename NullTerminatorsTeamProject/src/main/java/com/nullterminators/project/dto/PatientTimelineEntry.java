@@ -0,0 +1,15 @@
+package com.nullterminators.project.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One record on a patient's timeline together with what the client knows about the doctor who
+ * wrote it. {@code doctorDesignation} is null if the doctor is no longer in the client.
+ */
+public record PatientTimelineEntry(
+    Integer id,
+    LocalDate date,
+    Integer doctorId,
+    String doctorDesignation,
+    String prescription,
+    String notes) {}
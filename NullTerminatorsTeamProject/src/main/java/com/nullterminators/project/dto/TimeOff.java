@@ -0,0 +1,42 @@
+package com.nullterminators.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Time-off record as returned by the time-off service. Fields the client does not use are kept in
+ * {@link #getAdditionalFields()} so responses still carry everything the service sent.
+ */
+@Data
+public class TimeOff {
+
+  private Long id;
+
+  private Integer employeeId;
+
+  private Long approverId;
+
+  private String leaveType;
+
+  private LocalDate startDate;
+
+  private LocalDate endDate;
+
+  private String status;
+
+  private Map<String, Object> additionalFields = new LinkedHashMap<>();
+
+  @JsonAnyGetter
+  public Map<String, Object> getAdditionalFields() {
+    return additionalFields;
+  }
+
+  @JsonAnySetter
+  public void setAdditionalField(String name, Object value) {
+    additionalFields.put(name, value);
+  }
+}
@@ -0,0 +1,36 @@
+package com.nullterminators.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Body of a new time-off request. Dates and the leave type are kept as sent so they can be
+ * validated with a proper error message; any other fields are forwarded to the time-off service
+ * unchanged.
+ */
+@Data
+public class TimeOffRequest {
+
+  private Integer employeeId;
+
+  private String leaveType;
+
+  private String startDate;
+
+  private String endDate;
+
+  private Map<String, Object> additionalFields = new LinkedHashMap<>();
+
+  @JsonAnyGetter
+  public Map<String, Object> getAdditionalFields() {
+    return additionalFields;
+  }
+
+  @JsonAnySetter
+  public void setAdditionalField(String name, Object value) {
+    additionalFields.put(name, value);
+  }
+}
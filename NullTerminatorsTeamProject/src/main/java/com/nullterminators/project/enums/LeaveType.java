@@ -0,0 +1,30 @@
+package com.nullterminators.project.enums;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum LeaveType {
+    CASUAL,
+    SICK,
+    HOLIDAY,
+    MATERNITY,
+    PATERNITY;
+
+    private static final Map<String, LeaveType> BY_NAME = new HashMap<>();
+
+    static {
+        for (LeaveType type : values()) {
+            BY_NAME.put(type.name(), type);
+        }
+    }
+
+    /**
+     * Looks up a leave type by its exact name.
+     *
+     * @param name leave type name, may be null
+     * @return the leave type, or null if the name is unknown
+     */
+    public static LeaveType fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+}
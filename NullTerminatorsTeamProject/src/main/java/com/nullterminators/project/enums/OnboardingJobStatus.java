@@ -0,0 +1,8 @@
+package com.nullterminators.project.enums;
+
+public enum OnboardingJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.nullterminators.project.enums;
+
+public enum OnboardingStep {
+    CREATE_PROFILE,
+    PROFILE_REQUESTED,
+    CREATE_LOGIN,
+    ADD_TO_CLIENT_DB,
+    DONE
+}
@@ -0,0 +1,9 @@
+package com.nullterminators.project.enums;
+
+public enum PayrollJobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED
+}
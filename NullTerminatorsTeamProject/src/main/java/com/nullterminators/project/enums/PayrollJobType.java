@@ -0,0 +1,6 @@
+package com.nullterminators.project.enums;
+
+public enum PayrollJobType {
+    GENERATE,
+    DELETE
+}
@@ -0,0 +1,16 @@
+package com.nullterminators.project.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+
+@Data
+@Entity
+public class DesignationHeadCount {
+    @Id
+    private String designation;
+
+    @Column(nullable = false)
+    private long total;
+}
@@ -0,0 +1,74 @@
+package com.nullterminators.project.model;
+
+import com.nullterminators.project.enums.OnboardingJobStatus;
+import com.nullterminators.project.enums.OnboardingStep;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+@Entity
+public class OnboardingJob {
+    @Id
+    @SequenceGenerator(name = "onboardingJobIdSeq", sequenceName = "onboarding_job_id_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "onboardingJobIdSeq")
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String idempotencyKey;
+
+    @NotNull
+    private String name;
+
+    private String phoneNumber;
+
+    private String gender;
+
+    private int age;
+
+    private LocalDate startDate;
+
+    @NotNull
+    private String designation;
+
+    private String email;
+
+    private String emergencyContact;
+
+    private int baseSalary;
+
+    @NotNull
+    private String username;
+
+    private String passwordHash;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private OnboardingJobStatus status;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private OnboardingStep step;
+
+    private Integer employeeId;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @NotNull
+    private Instant nextAttemptAt;
+
+    @NotNull
+    private Instant createdAt;
+
+    @NotNull
+    private Instant updatedAt;
+
+    @Version
+    private Long version;
+}
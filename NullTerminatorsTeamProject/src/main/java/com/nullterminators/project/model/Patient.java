@@ -3,9 +3,13 @@ package com.nullterminators.project.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patient")
 public class Patient {
     @Id
     @SequenceGenerator(name = "patientIdSeq", sequenceName = "patient_id_seq", allocationSize = 1)
@@ -20,4 +24,7 @@ public class Patient {
 
     @NotNull
     private Integer age;
+
+    @Version
+    private Long version;
 }
@@ -28,4 +28,7 @@ public class PatientRecords {
 
     @NotNull
     private String notes;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,54 @@
+package com.nullterminators.project.model;
+
+import com.nullterminators.project.enums.PayrollJobStatus;
+import com.nullterminators.project.enums.PayrollJobType;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Entity
+public class PayrollJob {
+    @Id
+    @SequenceGenerator(name = "payrollJobIdSeq", sequenceName = "payroll_job_id_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payrollJobIdSeq")
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private PayrollJobType type;
+
+    private int month;
+
+    private int year;
+
+    /* request body forwarded to the payroll service, as JSON */
+    @NotNull
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private PayrollJobStatus status;
+
+    private Integer resultStatus;
+
+    /* response body of the payroll service, as JSON */
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @NotNull
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @NotNull
+    private Instant updatedAt;
+}
@@ -28,4 +28,7 @@ public class PayrollRequests {
 
     @NotNull
     private int approved;
+
+    @Version
+    private Long version;
 }
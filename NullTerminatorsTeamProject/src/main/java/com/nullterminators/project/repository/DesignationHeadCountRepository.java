@@ -0,0 +1,51 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.model.DesignationHeadCount;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository for the maintained head-count of every designation. The native statements name the
+ * table they touch as their query space; without it Hibernate clears every second-level cache
+ * region after each of them.
+ */
+public interface DesignationHeadCountRepository extends JpaRepository<DesignationHeadCount, String> {
+
+    /*
+    * Adds delta to the head-count of a designation, creating the row if needed.
+    */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "designation_head_count"))
+    @Query(value = "INSERT INTO designation_head_count (designation, total) VALUES (:designation, :delta)"
+        + " ON CONFLICT (designation) DO UPDATE SET total = designation_head_count.total + :delta",
+        nativeQuery = true)
+    int increment(@Param("designation") String designation, @Param("delta") long delta);
+
+    /*
+    * Overwrites the head-count of a designation.
+    */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "designation_head_count"))
+    @Query(value = "INSERT INTO designation_head_count (designation, total) VALUES (:designation, :total)"
+        + " ON CONFLICT (designation) DO UPDATE SET total = :total", nativeQuery = true)
+    int overwrite(@Param("designation") String designation, @Param("total") long total);
+
+    /*
+    * Blocks head-count changes until the end of the transaction. Reads are not blocked.
+    */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "designation_head_count"))
+    @Query(value = "LOCK TABLE designation_head_count IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconcile();
+
+    /*
+    * Returns the designations that currently have employees.
+    */
+    List<DesignationHeadCount> findByTotalGreaterThanOrderByDesignation(long total);
+}
@@ -2,9 +2,17 @@ package com.nullterminators.project.repository;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.nullterminators.project.model.EmployeeProfileManagement;
 
@@ -19,5 +27,22 @@ public interface EmployeeProfileManagementRepository extends JpaRepository<Emplo
     @Query("SELECT e.designation AS designation," + 
         " COUNT(e) AS total FROM EmployeeProfileManagement e GROUP BY e.designation")
     List<Map<String, Object>> findDesignationAndTotalCounts();
-      
-  }
+
+    /*
+    * Inserts an employee unless the id already exists. Returns 1 if the row was inserted; a
+    * concurrent insert of the same id waits for the other transaction and then returns 0. The query
+    * space limits cache invalidation to the employee profile region.
+    */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employee_profile_management"))
+    @Query(value = "INSERT INTO employee_profile_management (id, designation) VALUES (:id, :designation)"
+        + " ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") int id, @Param("designation") String designation);
+
+    /*
+    * Loads an employee and locks the row until the end of the transaction.
+    */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EmployeeProfileManagement e WHERE e.id = :id")
+    Optional<EmployeeProfileManagement> findByIdForUpdate(@Param("id") int id);
+}
@@ -0,0 +1,53 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.OnboardingJobStatus;
+import com.nullterminators.project.model.OnboardingJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OnboardingJobRepository extends JpaRepository<OnboardingJob, Long> {
+    Optional<OnboardingJob> findByIdempotencyKey(String idempotencyKey);
+
+    @Query("SELECT j.id FROM OnboardingJob j WHERE j.status = :status AND j.nextAttemptAt <= :now ORDER BY j.id")
+    List<Long> findReadyJobIds(@Param("status") OnboardingJobStatus status, @Param("now") Instant now,
+                               Pageable pageable);
+
+    /*
+    * Atomically moves a job from one status to another. Returns 1 only for the caller that won.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OnboardingJob j SET j.status = :to, j.updatedAt = :now, j.version = j.version + 1"
+            + " WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") Long id, @Param("from") OnboardingJobStatus from,
+                   @Param("to") OnboardingJobStatus to, @Param("now") Instant now);
+
+    /*
+    * Puts jobs whose worker died mid-run back in the queue.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OnboardingJob j SET j.status = :pending, j.updatedAt = :now, j.version = j.version + 1"
+            + " WHERE j.status = :running AND j.updatedAt < :cutoff")
+    int requeueStale(@Param("running") OnboardingJobStatus running, @Param("pending") OnboardingJobStatus pending,
+                     @Param("cutoff") Instant cutoff, @Param("now") Instant now);
+
+    /*
+    * Gives a finished job a unique key so the original key can be used by a new job.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE OnboardingJob j SET j.idempotencyKey = :retiredKey, j.version = j.version + 1"
+            + " WHERE j.id = :id AND j.status IN :finished")
+    int retireKey(@Param("id") Long id, @Param("retiredKey") String retiredKey,
+                  @Param("finished") Collection<OnboardingJobStatus> finished);
+}
@@ -1,12 +1,78 @@
 package com.nullterminators.project.repository;
 
+import com.nullterminators.project.dto.ChangeStamp;
+import com.nullterminators.project.dto.PatientTimelineEntry;
 import com.nullterminators.project.model.PatientRecords;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface PatientRecordsRepository extends JpaRepository<PatientRecords, Integer> {
     List<PatientRecords> findAllByPatientId(Integer patientId);
 
     List<PatientRecords> findAllByDoctorId(Integer doctorId);
+
+    /** Change stamp of a patient's records, used as the ETag of their record list. */
+    @Query("SELECT new com.nullterminators.project.dto.ChangeStamp(count(r), "
+            + "cast(coalesce(max(r.id), 0) as Long), coalesce(sum(r.version), 0L)) "
+            + "FROM PatientRecords r WHERE r.patientId = :patientId")
+    ChangeStamp findChangeStampByPatientId(@Param("patientId") Integer patientId);
+
+    /**
+     * Sets the prescription of a record in a single UPDATE.
+     *
+     * @return number of rows updated, 0 if the record does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PatientRecords r SET r.prescription = :prescription, r.version = r.version + 1 "
+            + "WHERE r.id = :id")
+    int updatePrescription(@Param("id") Integer id, @Param("prescription") String prescription);
+
+    /**
+     * Sets the notes of a record in a single UPDATE.
+     *
+     * @return number of rows updated, 0 if the record does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PatientRecords r SET r.notes = :notes, r.version = r.version + 1 WHERE r.id = :id")
+    int updateNotes(@Param("id") Integer id, @Param("notes") String notes);
+
+    /**
+     * Full-text search over prescription and notes, ranked by ts_rank. The tsvector expression
+     * must stay identical to the one in patient_records_search_idx for the index to be used.
+     */
+    @Query(value = "SELECT r.* FROM patient_records r "
+            + "WHERE to_tsvector('english', coalesce(r.prescription, '') || ' ' || coalesce(r.notes, '')) "
+            + "@@ plainto_tsquery('english', :query) "
+            + "ORDER BY ts_rank(to_tsvector('english', coalesce(r.prescription, '') || ' ' || coalesce(r.notes, '')), "
+            + "plainto_tsquery('english', :query)) DESC, r.id",
+            countQuery = "SELECT count(*) FROM patient_records r "
+                    + "WHERE to_tsvector('english', coalesce(r.prescription, '') || ' ' || coalesce(r.notes, '')) "
+                    + "@@ plainto_tsquery('english', :query)",
+            nativeQuery = true)
+    Page<PatientRecords> search(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Returns a patient's records between two dates, oldest first, joined with the designation of
+     * the doctor who wrote them. Rows are keyset-paged on (date, id): only rows after
+     * (afterDate, afterId) are returned.
+     */
+    @Query("SELECT new com.nullterminators.project.dto.PatientTimelineEntry("
+            + "r.id, r.date, r.doctorId, e.designation, r.prescription, r.notes) "
+            + "FROM PatientRecords r LEFT JOIN EmployeeProfileManagement e ON e.id = r.doctorId "
+            + "WHERE r.patientId = :patientId AND r.date >= :from AND r.date <= :to "
+            + "AND (r.date > :afterDate OR (r.date = :afterDate AND r.id > :afterId)) "
+            + "ORDER BY r.date, r.id")
+    List<PatientTimelineEntry> findTimeline(@Param("patientId") Integer patientId,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to,
+                                            @Param("afterDate") LocalDate afterDate,
+                                            @Param("afterId") Integer afterId,
+                                            Pageable pageable);
 }
@@ -1,6 +1,35 @@
 package com.nullterminators.project.repository;
 
 import com.nullterminators.project.model.Patient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PatientRepository extends JpaRepository<Patient, Integer> {}
+public interface PatientRepository extends JpaRepository<Patient, Integer> {
+    /**
+     * Sets the phone number of a patient in a single UPDATE.
+     *
+     * @return number of rows updated, 0 if the patient does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Patient p SET p.phoneNumber = :phoneNumber, p.version = p.version + 1 WHERE p.id = :id")
+    int updatePhoneNumber(@Param("id") Integer id, @Param("phoneNumber") String phoneNumber);
+
+    /**
+     * Finds patients whose name is similar to the query (pg_trgm, patient_name_trgm_idx) or whose
+     * phone number starts with the given prefix (patient_phone_number_prefix_idx). Phone matches
+     * come first, then names by similarity.
+     *
+     * @param phonePrefix LIKE pattern for the phone number, already escaped and ending in %
+     */
+    @Query(value = "SELECT p.* FROM patient p "
+            + "WHERE p.name % :query OR p.phone_number LIKE :phonePrefix "
+            + "ORDER BY (p.phone_number LIKE :phonePrefix) DESC, similarity(p.name, :query) DESC, p.id",
+            countQuery = "SELECT count(*) FROM patient p "
+                    + "WHERE p.name % :query OR p.phone_number LIKE :phonePrefix",
+            nativeQuery = true)
+    Page<Patient> search(@Param("query") String query, @Param("phonePrefix") String phonePrefix, Pageable pageable);
+}
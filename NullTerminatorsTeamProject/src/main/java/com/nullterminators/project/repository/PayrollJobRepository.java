@@ -0,0 +1,81 @@
+package com.nullterminators.project.repository;
+
+import com.nullterminators.project.enums.PayrollJobStatus;
+import com.nullterminators.project.enums.PayrollJobType;
+import com.nullterminators.project.model.PayrollJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PayrollJobRepository extends JpaRepository<PayrollJob, Long> {
+    Optional<PayrollJob> findFirstByTypeAndMonthAndYearAndStatusIn(PayrollJobType type, int month, int year,
+                                                                  Collection<PayrollJobStatus> statuses);
+
+    @Query("SELECT j.id FROM PayrollJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findJobIdsByStatus(@Param("status") PayrollJobStatus status, Pageable pageable);
+
+    /*
+    * Atomically moves a job from one status to another. Returns 1 only for the caller that won.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.status = :to, j.updatedAt = :now WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") Long id, @Param("from") PayrollJobStatus from,
+                   @Param("to") PayrollJobStatus to, @Param("now") Instant now);
+
+    /*
+    * Claims a pending job for a worker and records when it started. Returns 1 only for the caller that won.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.status = :running, j.startedAt = :now, j.updatedAt = :now"
+            + " WHERE j.id = :id AND j.status = :pending")
+    int start(@Param("id") Long id, @Param("pending") PayrollJobStatus pending,
+              @Param("running") PayrollJobStatus running, @Param("now") Instant now);
+
+    /*
+    * Records the outcome of a run, but only if the job is still the run started at startedAt; a job that
+    * was requeued and picked up again in the meantime is left to its new run.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.status = :outcome, j.resultStatus = :resultStatus, j.result = :result,"
+            + " j.lastError = :lastError, j.finishedAt = :now, j.updatedAt = :now"
+            + " WHERE j.id = :id AND j.status = :running AND j.startedAt = :startedAt")
+    int finish(@Param("id") Long id, @Param("running") PayrollJobStatus running,
+               @Param("startedAt") Instant startedAt, @Param("outcome") PayrollJobStatus outcome,
+               @Param("resultStatus") Integer resultStatus, @Param("result") String result,
+               @Param("lastError") String lastError, @Param("now") Instant now);
+
+    /*
+    * Puts jobs whose instance died mid-run back in the queue.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.status = :pending, j.updatedAt = :now"
+            + " WHERE j.status = :running AND j.updatedAt < :cutoff")
+    int requeueStale(@Param("running") PayrollJobStatus running, @Param("pending") PayrollJobStatus pending,
+                     @Param("cutoff") Instant cutoff, @Param("now") Instant now);
+
+    /*
+    * Heartbeat for jobs this instance is running, so they are not mistaken for stale ones.
+    */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PayrollJob j SET j.updatedAt = :now WHERE j.id IN :ids AND j.status = :running")
+    int touch(@Param("ids") Collection<Long> ids, @Param("running") PayrollJobStatus running,
+              @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PayrollJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,13 +1,21 @@
 package com.nullterminators.project.repository;
 
+import com.nullterminators.project.dto.ChangeStamp;
 import com.nullterminators.project.model.PayrollRequests;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PayrollRequestsRepository extends JpaRepository<PayrollRequests, Integer> {
     List<PayrollRequests> findAllByEmpIdOrderByCreatedDate(Integer empId);
 
+    /** Change stamp of an employee's payroll requests, used as the ETag of their request list. */
+    @Query("SELECT new com.nullterminators.project.dto.ChangeStamp(count(p), "
+            + "cast(coalesce(max(p.id), 0) as Long), coalesce(sum(p.version), 0L)) "
+            + "FROM PayrollRequests p WHERE p.empId = :empId")
+    ChangeStamp findChangeStampByEmpId(@Param("empId") Integer empId);
+
     @Query(value = "SELECT * FROM payroll_requests p "
             + "WHERE p.approved = 1 "
             + "ORDER BY p.created_date DESC", nativeQuery = true)
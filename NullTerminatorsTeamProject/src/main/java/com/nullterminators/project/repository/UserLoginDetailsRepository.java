@@ -2,9 +2,17 @@ package com.nullterminators.project.repository;
 
 import com.nullterminators.project.model.UserLoginDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserLoginDetailsRepository extends JpaRepository<UserLoginDetails, Integer> {
     Optional<UserLoginDetails> findByUsername(String username);
+
+    List<UserLoginDetails> findAllByUsernameIn(Collection<String> usernames);
+
+    @Transactional
+    long deleteByUsernameAndEmployeeId(String username, Integer employeeId);
 }
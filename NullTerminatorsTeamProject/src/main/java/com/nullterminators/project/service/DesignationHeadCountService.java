@@ -0,0 +1,101 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.model.DesignationHeadCount;
+import com.nullterminators.project.repository.DesignationHeadCountRepository;
+import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the head-count of every designation in the designation_head_count table, which is
+ * updated in the same transaction as the employee row, so reports never scan the employee table.
+ * Counts are always read from the table, so every instance sees the same numbers.
+ */
+@Service
+public class DesignationHeadCountService {
+
+  private static final Logger log = LoggerFactory.getLogger(DesignationHeadCountService.class);
+
+  private final DesignationHeadCountRepository designationHeadCountRepository;
+  private final EmployeeProfileManagementRepository employeeProfileManagementRepository;
+
+  public DesignationHeadCountService(DesignationHeadCountRepository designationHeadCountRepository,
+      EmployeeProfileManagementRepository employeeProfileManagementRepository) {
+    this.designationHeadCountRepository = designationHeadCountRepository;
+    this.employeeProfileManagementRepository = employeeProfileManagementRepository;
+  }
+
+  /**
+   * Adjusts the head-count of a designation. Must be called inside the transaction that changes
+   * the employee row.
+   *
+   * @param designation designation to adjust
+   * @param delta amount to add, negative for removals
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void increment(String designation, long delta) {
+    if (designation == null || delta == 0) {
+      return;
+    }
+    designationHeadCountRepository.increment(designation, delta);
+  }
+
+  /**
+   * Returns the head-count of every designation, in the same shape as
+   * {@code EmployeeProfileManagementRepository.findDesignationAndTotalCounts}.
+   *
+   * @return list of designation and total pairs
+   */
+  public List<Map<String, Object>> getCounts() {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (DesignationHeadCount count : designationHeadCountRepository.findByTotalGreaterThanOrderByDesignation(0)) {
+      Map<String, Object> row = new LinkedHashMap<>();
+      row.put("designation", count.getDesignation());
+      row.put("total", count.getTotal());
+      result.add(row);
+    }
+    return result;
+  }
+
+  /**
+   * Compares the maintained counts with a full GROUP BY over the employee table and repairs any
+   * drift. Also seeds the table on first start. The counter table is locked first, so writers
+   * still in flight either commit before the GROUP BY or adjust the repaired counts afterwards.
+   */
+  @Scheduled(initialDelayString = "${headcount.reconcile.initial-delay-ms:0}",
+      fixedDelayString = "${headcount.reconcile.interval-ms:3600000}")
+  @Transactional
+  public void reconcile() {
+    designationHeadCountRepository.lockForReconcile();
+    Map<String, Long> actual = new HashMap<>();
+    for (Map<String, Object> row : employeeProfileManagementRepository.findDesignationAndTotalCounts()) {
+      actual.put((String) row.get("designation"), ((Number) row.get("total")).longValue());
+    }
+    Map<String, Long> stored = new HashMap<>();
+    for (DesignationHeadCount row : designationHeadCountRepository.findAll()) {
+      stored.put(row.getDesignation(), row.getTotal());
+    }
+
+    Set<String> designations = new HashSet<>(actual.keySet());
+    designations.addAll(stored.keySet());
+    for (String designation : designations) {
+      long expected = actual.getOrDefault(designation, 0L);
+      long inTable = stored.getOrDefault(designation, 0L);
+      if (expected != inTable) {
+        log.warn("Head-count drift for '{}': expected {}, table {}", designation, expected, inTable);
+        designationHeadCountRepository.overwrite(designation, expected);
+      }
+    }
+  }
+}
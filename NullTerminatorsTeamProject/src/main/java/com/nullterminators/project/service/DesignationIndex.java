@@ -0,0 +1,189 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.model.EmployeeProfileManagement;
+import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory index of client employees by designation. Each designation maps to a bitset of
+ * employee ids, so role checks are answered without touching the database. Employees added on
+ * other instances are looked up when they are in no designation at all, and ids the database does
+ * not know are remembered until the next reload. The whole index is reloaded periodically to drop
+ * employees removed elsewhere.
+ */
+@Component
+public class DesignationIndex {
+
+  private final EmployeeProfileManagementRepository employeeProfileManagementRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Map<String, BitSet> employeesByDesignation = new HashMap<>();
+  // ids looked up in the database and not found there
+  private BitSet unknown = new BitSet();
+  // adds (designation) and removes (null) made while a reload is reading the database
+  private Map<Integer, String> changedDuringLoad;
+
+  public DesignationIndex(EmployeeProfileManagementRepository employeeProfileManagementRepository) {
+    this.employeeProfileManagementRepository = employeeProfileManagementRepository;
+  }
+
+  /** Loads every client employee in a single query. */
+  @PostConstruct
+  @Scheduled(initialDelayString = "${designation-index.refresh-interval-ms:60000}",
+      fixedDelayString = "${designation-index.refresh-interval-ms:60000}")
+  public synchronized void load() {
+    lock.writeLock().lock();
+    try {
+      changedDuringLoad = new HashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    List<EmployeeProfileManagement> employees;
+    try {
+      employees = employeeProfileManagementRepository.findAll();
+    } catch (RuntimeException e) {
+      lock.writeLock().lock();
+      try {
+        changedDuringLoad = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+    Map<String, BitSet> loaded = new HashMap<>();
+    for (EmployeeProfileManagement employee : employees) {
+      put(loaded, employee.getId(), employee.getDesignation());
+    }
+    lock.writeLock().lock();
+    try {
+      // the snapshot may predate changes made on this instance while it was read
+      changedDuringLoad.forEach((id, designation) -> {
+        clear(loaded, id);
+        put(loaded, id, designation);
+      });
+      changedDuringLoad = null;
+      employeesByDesignation = loaded;
+      unknown = new BitSet();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records the designation of an employee, replacing any previous one.
+   *
+   * @param id employee id
+   * @param designation designation of the employee
+   */
+  public void add(int id, String designation) {
+    lock.writeLock().lock();
+    try {
+      clear(employeesByDesignation, id);
+      put(employeesByDesignation, id, designation);
+      if (id >= 0) {
+        unknown.clear(id);
+      }
+      if (changedDuringLoad != null) {
+        changedDuringLoad.put(id, designation);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes an employee from the index.
+   *
+   * @param id employee id
+   */
+  public void remove(int id) {
+    lock.writeLock().lock();
+    try {
+      clear(employeesByDesignation, id);
+      if (changedDuringLoad != null) {
+        changedDuringLoad.put(id, null);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Checks whether an employee holds the given designation (case-insensitive).
+   *
+   * @param id employee id
+   * @param designation designation to check
+   * @return true if the employee exists in the client with that designation
+   */
+  public boolean hasDesignation(int id, String designation) {
+    if (id < 0) {
+      return false;
+    }
+    lock.readLock().lock();
+    try {
+      boolean known = unknown.get(id);
+      for (Map.Entry<String, BitSet> entry : employeesByDesignation.entrySet()) {
+        if (entry.getValue().get(id)) {
+          if (entry.getKey().equalsIgnoreCase(designation)) {
+            return true;
+          }
+          known = true;
+        }
+      }
+      if (known) {
+        return false;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    // the employee may have been added on another instance since the last reload
+    Optional<EmployeeProfileManagement> employee = employeeProfileManagementRepository.findById(id);
+    if (employee.isEmpty()) {
+      lock.writeLock().lock();
+      try {
+        unknown.set(id);
+      } finally {
+        lock.writeLock().unlock();
+      }
+      return false;
+    }
+    add(id, employee.get().getDesignation());
+    return designation.equalsIgnoreCase(employee.get().getDesignation());
+  }
+
+  /**
+   * Checks whether an employee is a doctor.
+   *
+   * @param id employee id, may be null
+   * @return true if the employee is a doctor in the client
+   */
+  public boolean isDoctor(Integer id) {
+    return id != null && hasDesignation(id, "doctor");
+  }
+
+  private static void put(Map<String, BitSet> employeesByDesignation, int id,
+      String designation) {
+    if (id < 0 || designation == null) {
+      return;
+    }
+    employeesByDesignation.computeIfAbsent(designation, d -> new BitSet()).set(id);
+  }
+
+  private static void clear(Map<String, BitSet> employeesByDesignation, int id) {
+    if (id < 0) {
+      return;
+    }
+    employeesByDesignation.values().removeIf(ids -> {
+      ids.clear(id);
+      return ids.isEmpty();
+    });
+  }
+}
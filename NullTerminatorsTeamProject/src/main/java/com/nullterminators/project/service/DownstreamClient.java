@@ -0,0 +1,377 @@
+package com.nullterminators.project.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Shared client for the downstream employee, hierarchy, time-off and payroll services. It holds
+ * one read-only set of Basic auth headers, rebuilt only when {@code service.auth.*} changes,
+ * expands URI templates with every variable strictly encoded, maps downstream errors in one place
+ * and times every call as {@code downstream.client.requests}. Pure forwarding endpoints can
+ * {@link #stream stream} a response straight through instead of decoding it.
+ */
+@Component
+public class DownstreamClient {
+
+  private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+  private static final List<String> PROXIED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+      HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL);
+
+  private final RestTemplate restTemplate;
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final BlockingQueue<byte[]> streamBuffers;
+  private volatile Credentials credentials;
+
+  public DownstreamClient(RestTemplate restTemplate, Environment environment,
+      MeterRegistry meterRegistry,
+      @Value("${downstream.stream.pooled-buffers:64}") int pooledBuffers) {
+    this.restTemplate = restTemplate;
+    this.streamBuffers = new ArrayBlockingQueue<>(pooledBuffers);
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+    refreshCredentials();
+  }
+
+  /**
+   * Returns the shared request headers: Basic auth and a JSON content type. The headers are
+   * read-only; use {@link #headers(HttpHeaders)} to add request-specific ones.
+   *
+   * @return the shared headers
+   */
+  public HttpHeaders headers() {
+    return credentials.headers();
+  }
+
+  /**
+   * Returns a copy of the shared headers with extra headers added.
+   *
+   * @param extra headers for this request only
+   * @return the combined headers
+   */
+  public HttpHeaders headers(HttpHeaders extra) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.putAll(credentials.headers());
+    headers.putAll(extra);
+    return headers;
+  }
+
+  /**
+   * Re-reads the downstream credentials and rebuilds the auth headers if they changed. Also runs
+   * after any 401 from a downstream service.
+   */
+  @Scheduled(fixedDelayString = "${service.auth.refresh-interval-ms:60000}")
+  public void refreshCredentials() {
+    String username = environment.getProperty("service.auth.username");
+    String password = environment.getProperty("service.auth.password");
+    Credentials current = credentials;
+    if (current == null || !current.matches(username, password)) {
+      credentials = Credentials.of(username, password);
+    }
+  }
+
+  /**
+   * Builds a URI from a template. Variables are encoded in full, so reserved characters such as
+   * {@code &}, {@code =} and {@code +} in a value cannot change the structure of the URI.
+   *
+   * @param baseUrl base URL of the downstream service
+   * @param template path, optionally with a query, containing {@code {placeholders}}
+   * @param uriVariables values for the placeholders, in order
+   * @return the expanded and encoded URI
+   */
+  public static URI uri(String baseUrl, String template, Object... uriVariables) {
+    return UriComponentsBuilder.fromUriString(baseUrl + template).encode()
+        .buildAndExpand(uriVariables).toUri();
+  }
+
+  /**
+   * Builds a URI from a template with named variables.
+   *
+   * @param baseUrl base URL of the downstream service
+   * @param template path, optionally with a query, containing {@code {placeholders}}
+   * @param uriVariables values for the placeholders, by name
+   * @return the expanded and encoded URI
+   */
+  public static URI uri(String baseUrl, String template, Map<String, ?> uriVariables) {
+    return UriComponentsBuilder.fromUriString(baseUrl + template).encode()
+        .buildAndExpand(uriVariables).toUri();
+  }
+
+  /**
+   * Sends a request with the shared headers. Error responses are thrown as by
+   * {@link RestTemplate}.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param body request body, or null
+   * @param responseType type of the response body
+   * @param uriVariables values for the placeholders, in order
+   * @return the response
+   */
+  public <T> ResponseEntity<T> exchange(HttpMethod method, String baseUrl, String template,
+      Object body, Class<T> responseType, Object... uriVariables) {
+    return send(method, baseUrl, template, uri(baseUrl, template, uriVariables),
+        new HttpEntity<>(body, headers()), responseType);
+  }
+
+  /**
+   * Sends a request with the shared headers and named URI variables.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param body request body, or null
+   * @param responseType type of the response body
+   * @param uriVariables values for the placeholders, by name
+   * @return the response
+   */
+  public <T> ResponseEntity<T> exchange(HttpMethod method, String baseUrl, String template,
+      Object body, Class<T> responseType, Map<String, ?> uriVariables) {
+    return send(method, baseUrl, template, uri(baseUrl, template, uriVariables),
+        new HttpEntity<>(body, headers()), responseType);
+  }
+
+  /**
+   * Sends a request with the shared headers plus request-specific ones.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param extraHeaders headers for this request only
+   * @param responseType type of the response body
+   * @param uriVariables values for the placeholders, in order
+   * @return the response
+   */
+  public <T> ResponseEntity<T> exchangeWithHeaders(HttpMethod method, String baseUrl,
+      String template, HttpHeaders extraHeaders, Class<T> responseType, Object... uriVariables) {
+    return send(method, baseUrl, template, uri(baseUrl, template, uriVariables),
+        new HttpEntity<>(headers(extraHeaders)), responseType);
+  }
+
+  /**
+   * Sends a request with a body, the shared headers plus request-specific ones and named URI
+   * variables.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param body request body, or null
+   * @param extraHeaders headers for this request only
+   * @param responseType type of the response body
+   * @param uriVariables values for the placeholders, by name
+   * @return the response
+   */
+  public <T> ResponseEntity<T> exchangeWithHeaders(HttpMethod method, String baseUrl,
+      String template, Object body, HttpHeaders extraHeaders, Class<T> responseType,
+      Map<String, ?> uriVariables) {
+    return send(method, baseUrl, template, uri(baseUrl, template, uriVariables),
+        new HttpEntity<>(body, headers(extraHeaders)), responseType);
+  }
+
+  /**
+   * Sends a request and maps the outcome to a status and body instead of throwing: a 4xx keeps
+   * its status and parsed body, any other failure becomes a 500 with the error message.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param body request body, or null
+   * @param uriVariables values for the placeholders, in order
+   * @return status and body of the response
+   */
+  public Pair<HttpStatus, Object> call(HttpMethod method, String baseUrl, String template,
+      Object body, Object... uriVariables) {
+    try {
+      ResponseEntity<Object> response =
+          exchange(method, baseUrl, template, body, Object.class, uriVariables);
+      return Pair.of(HttpStatus.valueOf(response.getStatusCode().value()), response.getBody());
+    } catch (HttpClientErrorException e) {
+      Object errorBody = e.getResponseBodyAs(Object.class);
+      return Pair.of(HttpStatus.valueOf(e.getStatusCode().value()),
+          errorBody != null ? errorBody : e.getResponseBodyAsString());
+    } catch (Exception e) {
+      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, String.valueOf(e.getMessage()));
+    }
+  }
+
+  /**
+   * Forwards a downstream response to our own caller without decoding it. Status, content type,
+   * ETag and Cache-Control are copied and the body is streamed through a pooled fixed-size
+   * buffer, so memory use does not grow with the payload. A 4xx is forwarded the same way; other
+   * failures are thrown before anything is written.
+   *
+   * @param method HTTP method
+   * @param baseUrl base URL of the downstream service
+   * @param template path template, used as the metric tag
+   * @param extraHeaders headers for this request only, e.g. If-None-Match
+   * @param target response to write to
+   * @param tee optional stream that also receives the body of a 2xx response, or null
+   * @param uriVariables values for the placeholders, in order
+   * @return the downstream status
+   */
+  public HttpStatusCode stream(HttpMethod method, String baseUrl, String template,
+      HttpHeaders extraHeaders, HttpServletResponse target, OutputStream tee,
+      Object... uriVariables) {
+    HttpHeaders requestHeaders = headers(extraHeaders);
+    if (requestHeaders.getAccept().isEmpty()) {
+      requestHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
+    }
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String status = "IO_ERROR";
+    try {
+      HttpStatusCode statusCode = restTemplate.execute(uri(baseUrl, template, uriVariables), method,
+          request -> request.getHeaders().putAll(requestHeaders),
+          response -> {
+            target.setStatus(response.getStatusCode().value());
+            copyHeaders(response.getHeaders(), target);
+            if (response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+              byte[] buffer = borrowBuffer();
+              try {
+                copy(response.getBody(), target.getOutputStream(), tee, buffer);
+              } finally {
+                streamBuffers.offer(buffer);
+              }
+            }
+            return response.getStatusCode();
+          });
+      status = String.valueOf(statusCode.value());
+      return statusCode;
+    } catch (HttpClientErrorException e) {
+      status = String.valueOf(e.getStatusCode().value());
+      if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+        refreshCredentials();
+      }
+      target.setStatus(e.getStatusCode().value());
+      if (e.getResponseHeaders() != null) {
+        copyHeaders(e.getResponseHeaders(), target);
+      }
+      try {
+        target.getOutputStream().write(e.getResponseBodyAsByteArray());
+      } catch (IOException writeFailure) {
+        throw new UncheckedIOException(writeFailure);
+      }
+      return e.getStatusCode();
+    } catch (HttpStatusCodeException e) {
+      status = String.valueOf(e.getStatusCode().value());
+      throw e;
+    } finally {
+      record(sample, method, baseUrl, template, status);
+    }
+  }
+
+  /**
+   * Turns a failed downstream call into a response for our own caller: a 4xx is passed through
+   * with its body, anything else becomes a generic 500.
+   *
+   * @param e the failure
+   * @return the response to return
+   */
+  public static ResponseEntity<Object> errorResponse(Exception e) {
+    if (e instanceof HttpClientErrorException clientErrorException) {
+      return new ResponseEntity<>(clientErrorException.getResponseBodyAsString(),
+          clientErrorException.getStatusCode());
+    }
+    return new ResponseEntity<>("Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  private <T> ResponseEntity<T> send(HttpMethod method, String baseUrl, String template,
+      URI uri, HttpEntity<?> entity, Class<T> responseType) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String status = "IO_ERROR";
+    try {
+      ResponseEntity<T> response = restTemplate.exchange(uri, method, entity, responseType);
+      status = String.valueOf(response.getStatusCode().value());
+      return response;
+    } catch (HttpStatusCodeException e) {
+      status = String.valueOf(e.getStatusCode().value());
+      if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
+        refreshCredentials();
+      }
+      throw e;
+    } finally {
+      record(sample, method, baseUrl, template, status);
+    }
+  }
+
+  private static void copy(InputStream in, OutputStream out, OutputStream tee, byte[] buffer)
+      throws IOException {
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+      if (tee != null) {
+        tee.write(buffer, 0, read);
+      }
+    }
+    out.flush();
+  }
+
+  private static void copyHeaders(HttpHeaders from, HttpServletResponse target) {
+    for (String name : PROXIED_HEADERS) {
+      String value = from.getFirst(name);
+      if (value != null) {
+        target.setHeader(name, value);
+      }
+    }
+  }
+
+  private byte[] borrowBuffer() {
+    byte[] buffer = streamBuffers.poll();
+    return buffer != null ? buffer : new byte[STREAM_BUFFER_SIZE];
+  }
+
+  private void record(Timer.Sample sample, HttpMethod method, String baseUrl, String template,
+      String status) {
+    sample.stop(Timer.builder("downstream.client.requests")
+        .tag("service", baseUrl)
+        .tag("method", method.name())
+        .tag("uri", template)
+        .tag("status", status)
+        .register(meterRegistry));
+  }
+
+  private record Credentials(String username, String password, HttpHeaders headers) {
+
+    static Credentials of(String username, String password) {
+      HttpHeaders headers = new HttpHeaders();
+      String auth = username + ":" + password;
+      headers.set(HttpHeaders.AUTHORIZATION,
+          "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8)));
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      return new Credentials(username, password, HttpHeaders.readOnlyHttpHeaders(headers));
+    }
+
+    boolean matches(String username, String password) {
+      return Objects.equals(this.username, username) && Objects.equals(this.password, password);
+    }
+  }
+}
@@ -0,0 +1,398 @@
+package com.nullterminators.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullterminators.project.dto.EmployeeImportRow;
+import com.nullterminators.project.model.UserLoginDetails;
+import com.nullterminators.project.repository.UserLoginDetailsRepository;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports employees in bulk from a CSV or NDJSON upload. The upload is streamed in chunks: every
+ * chunk has its passwords hashed on the CPU pool while the remote profiles are created on a
+ * bounded I/O pool, and the local rows for the chunk are written with JDBC batch inserts. Result
+ * files are kept for a retention period and then purged.
+ */
+@Service
+public class EmployeeBulkImportService {
+
+  /** Supported upload formats. */
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeBulkImportService.class);
+
+  private static final String INSERT_EMPLOYEE =
+      "INSERT INTO employee_profile_management (id, designation) VALUES (?, ?)";
+  private static final String INSERT_USER = "INSERT INTO user_login_details"
+      + " (id, employee_id, username, password, role) VALUES (nextval('user_id_seq'), ?, ?, ?, ?)";
+
+  private final EmployeeProfileManagementService employeeProfileManagementService;
+  private final UserLoginDetailsService userLoginDetailsService;
+  private final UserLoginDetailsRepository userLoginDetailsRepository;
+  private final DesignationHeadCountService designationHeadCountService;
+  private final DesignationIndex designationIndex;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final ThreadPoolTaskExecutor passwordHashExecutor;
+  private final ThreadPoolTaskExecutor bulkImportExecutor;
+
+  @Value("${bulk-import.chunk-size:200}")
+  private int chunkSize;
+
+  @Value("${bulk-import.result-dir:${java.io.tmpdir}/employee-imports}")
+  private Path resultDir;
+
+  @Value("${bulk-import.result-retention-days:7}")
+  private long retentionDays;
+
+  public EmployeeBulkImportService(
+      EmployeeProfileManagementService employeeProfileManagementService,
+      UserLoginDetailsService userLoginDetailsService,
+      UserLoginDetailsRepository userLoginDetailsRepository,
+      DesignationHeadCountService designationHeadCountService,
+      DesignationIndex designationIndex,
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper,
+      @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor passwordHashExecutor,
+      @Qualifier("bulkImportExecutor") ThreadPoolTaskExecutor bulkImportExecutor) {
+    this.employeeProfileManagementService = employeeProfileManagementService;
+    this.userLoginDetailsService = userLoginDetailsService;
+    this.userLoginDetailsRepository = userLoginDetailsRepository;
+    this.designationHeadCountService = designationHeadCountService;
+    this.designationIndex = designationIndex;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    this.passwordHashExecutor = passwordHashExecutor;
+    this.bulkImportExecutor = bulkImportExecutor;
+  }
+
+  /**
+   * Imports every employee in the upload and writes a per-row result file.
+   *
+   * @param input uploaded file contents
+   * @param format format of the upload
+   * @return summary of the import, including its id for fetching the result file
+   * @throws IOException if the upload cannot be read or the result file cannot be written
+   */
+  public Map<String, Object> importEmployees(InputStream input, Format format) throws IOException {
+    String importId = UUID.randomUUID().toString();
+    Files.createDirectories(resultDir);
+    Path resultFile = resultFile(importId);
+    int[] outcome = new int[2];
+
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(input, StandardCharsets.UTF_8));
+        BufferedWriter writer = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)) {
+      writer.write("line,username,status,employeeId,message");
+      writer.newLine();
+
+      String[] header = null;
+      Set<String> seenUsernames = new HashSet<>();
+      List<PendingRow> chunk = new ArrayList<>(chunkSize);
+      String line;
+      long lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (format == Format.CSV && header == null) {
+          header = parseCsvLine(line).toArray(new String[0]);
+          continue;
+        }
+
+        PendingRow pending = new PendingRow(lineNumber);
+        try {
+          pending.row = format == Format.CSV ? toRow(header, parseCsvLine(line))
+              : objectMapper.readValue(line, EmployeeImportRow.class);
+          String problem = pending.row.validate();
+          if (problem == null && !seenUsernames.add(pending.row.username())) {
+            problem = "duplicate username in upload";
+          }
+          pending.error = problem;
+        } catch (Exception e) {
+          pending.error = "unreadable row: " + e.getMessage();
+        }
+        chunk.add(pending);
+
+        if (chunk.size() == chunkSize) {
+          processChunk(chunk);
+          writeResults(writer, chunk, outcome);
+          chunk.clear();
+        }
+      }
+      processChunk(chunk);
+      writeResults(writer, chunk, outcome);
+    }
+
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("importId", importId);
+    summary.put("total", outcome[0] + outcome[1]);
+    summary.put("succeeded", outcome[0]);
+    summary.put("failed", outcome[1]);
+    summary.put("result", "/client/employeeProfile/bulkImport/" + importId + "/result");
+    return summary;
+  }
+
+  /**
+   * Resolves the result file of an import.
+   *
+   * @param importId id returned by {@link #importEmployees}
+   * @return path of the result file, or null if the id is not a valid import id
+   */
+  public Path resultFile(String importId) {
+    try {
+      return resultDir.resolve(UUID.fromString(importId) + ".csv");
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Deletes result files past the retention period. */
+  @Scheduled(fixedDelayString = "${bulk-import.purge-interval-ms:3600000}")
+  public void purgeResults() {
+    if (!Files.isDirectory(resultDir)) {
+      return;
+    }
+    FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+    try (DirectoryStream<Path> results = Files.newDirectoryStream(resultDir, "*.csv")) {
+      for (Path result : results) {
+        try {
+          if (Files.getLastModifiedTime(result).compareTo(cutoff) < 0) {
+            Files.deleteIfExists(result);
+          }
+        } catch (IOException e) {
+          log.warn("Could not purge import result {}: {}", result, e.getMessage());
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not list import results in {}: {}", resultDir, e.getMessage());
+    }
+  }
+
+  private void processChunk(List<PendingRow> chunk) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    Set<String> usernames = new HashSet<>();
+    for (PendingRow pending : chunk) {
+      if (pending.error == null) {
+        usernames.add(pending.row.username());
+      }
+    }
+    if (usernames.isEmpty()) {
+      return;
+    }
+    Set<String> taken = new HashSet<>();
+    for (UserLoginDetails existing : userLoginDetailsRepository.findAllByUsernameIn(usernames)) {
+      taken.add(existing.getUsername());
+    }
+    for (PendingRow pending : chunk) {
+      if (pending.error == null && taken.contains(pending.row.username())) {
+        pending.error = "username already exists";
+      }
+    }
+
+    List<CompletableFuture<Void>> work = new ArrayList<>();
+    for (PendingRow pending : chunk) {
+      if (pending.error != null) {
+        continue;
+      }
+      EmployeeImportRow row = pending.row;
+      CompletableFuture<String> hash = CompletableFuture.supplyAsync(
+          () -> userLoginDetailsService.encodePassword(row.password()), passwordHashExecutor);
+      CompletableFuture<Integer> employeeId = CompletableFuture.supplyAsync(
+          () -> employeeProfileManagementService.createEmployee(row.name(), row.phoneNumber(),
+              row.gender(), row.age(), row.startDate(), row.designation(), row.email(),
+              row.emergencyContact(), row.baseSalary()), bulkImportExecutor);
+      work.add(hash.thenAcceptBoth(employeeId, (passwordHash, id) -> {
+        pending.passwordHash = passwordHash;
+        pending.employeeId = id;
+        if (id == -1) {
+          pending.error = "failed to create employee profile";
+        }
+      }).exceptionally(e -> {
+        pending.error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        return null;
+      }));
+    }
+    CompletableFuture.allOf(work.toArray(new CompletableFuture[0])).join();
+
+    List<PendingRow> created = new ArrayList<>();
+    for (PendingRow pending : chunk) {
+      if (pending.error == null) {
+        created.add(pending);
+      } else if (pending.employeeId != null && pending.employeeId != -1) {
+        removeRemoteProfile(pending.employeeId);
+      }
+    }
+    if (created.isEmpty()) {
+      return;
+    }
+
+    try {
+      insertLocalRows(created);
+    } catch (Exception e) {
+      // one bad row rolls back the whole batch; retry singly so only that row fails
+      log.warn("Batch insert of {} imported employees failed, inserting them one by one: {}",
+          created.size(), e.getMessage());
+      List<PendingRow> saved = new ArrayList<>(created.size());
+      for (PendingRow pending : created) {
+        try {
+          insertLocalRows(List.of(pending));
+          saved.add(pending);
+        } catch (Exception rowError) {
+          pending.error = "failed to save employee: " + rowError.getMessage();
+          removeRemoteProfile(pending.employeeId);
+        }
+      }
+      created = saved;
+    }
+    for (PendingRow pending : created) {
+      designationIndex.add(pending.employeeId, pending.row.designation());
+    }
+  }
+
+  private void insertLocalRows(List<PendingRow> created) {
+    List<Object[]> employees = new ArrayList<>(created.size());
+    List<Object[]> users = new ArrayList<>(created.size());
+    Map<String, Long> addedPerDesignation = new HashMap<>();
+    for (PendingRow pending : created) {
+      EmployeeImportRow row = pending.row;
+      employees.add(new Object[] {pending.employeeId, row.designation()});
+      users.add(new Object[] {pending.employeeId, row.username(), pending.passwordHash,
+          UserLoginDetailsService.roleFor(row.designation())});
+      addedPerDesignation.merge(row.designation(), 1L, Long::sum);
+    }
+    transactionTemplate.executeWithoutResult(status -> {
+      jdbcTemplate.batchUpdate(INSERT_EMPLOYEE, employees);
+      jdbcTemplate.batchUpdate(INSERT_USER, users);
+      addedPerDesignation.forEach(designationHeadCountService::increment);
+    });
+  }
+
+  private void removeRemoteProfile(int employeeId) {
+    try {
+      employeeProfileManagementService.deleteEmployee(employeeId);
+    } catch (Exception e) {
+      log.warn("Could not remove profile {} after a failed import: {}", employeeId, e.getMessage());
+    }
+  }
+
+  private static void writeResults(BufferedWriter writer, List<PendingRow> chunk, int[] outcome)
+      throws IOException {
+    for (PendingRow pending : chunk) {
+      outcome[pending.error == null ? 0 : 1]++;
+      writer.write(pending.line + ","
+          + csvField(pending.row != null ? pending.row.username() : null) + ","
+          + (pending.error == null ? "CREATED" : "FAILED") + ","
+          + (pending.error == null ? pending.employeeId : "") + ","
+          + csvField(pending.error));
+      writer.newLine();
+    }
+  }
+
+  private static EmployeeImportRow toRow(String[] header, List<String> values) {
+    Map<String, String> fields = new HashMap<>();
+    for (int i = 0; i < header.length && i < values.size(); i++) {
+      String value = values.get(i).trim();
+      fields.put(header[i].trim(), value.isEmpty() ? null : value);
+    }
+    return new EmployeeImportRow(
+        fields.get("name"),
+        fields.get("phoneNumber"),
+        fields.get("gender"),
+        fields.get("age") == null ? null : Integer.valueOf(fields.get("age")),
+        fields.get("startDate") == null ? null : LocalDate.parse(fields.get("startDate")),
+        fields.get("designation"),
+        fields.get("email"),
+        fields.get("emergencyContact"),
+        fields.get("baseSalary") == null ? null : Integer.valueOf(fields.get("baseSalary")),
+        fields.get("username"),
+        fields.get("password"));
+  }
+
+  /** Splits one CSV line, honouring double-quoted fields and doubled quotes inside them. */
+  private static List<String> parseCsvLine(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          current.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          current.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    values.add(current.toString());
+    return values;
+  }
+
+  private static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    return "\"" + value.replace("\"", "\"\"").replace('\n', ' ') + "\"";
+  }
+
+  /** Import state of a single row. */
+  private static final class PendingRow {
+    private final long line;
+    private EmployeeImportRow row;
+    private volatile String passwordHash;
+    private volatile Integer employeeId;
+    private volatile String error;
+
+    private PendingRow(long line) {
+      this.line = line;
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package com.nullterminators.project.service;
 
+import com.nullterminators.project.dto.HierarchyEdge;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
@@ -12,49 +18,120 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
 
 /** Service class for making REST API calls to the Employee Hierarchy service. */
 @Service
 public class EmployeeHierarchyService {
 
-  private final RestTemplate restTemplate;
-  private static final String BASE_URL = "http://localhost:8080/api/employee-hierarchy";
+  private final DownstreamClient downstreamClient;
+  private final Executor ioExecutor;
 
-  @Value("${service.auth.username}")
-  private String username;
+  @Value("${service.hierarchy.url:http://localhost:8080/api/employee-hierarchy}")
+  private String baseUrl;
 
-  @Value("${service.auth.password}")
-  private String password;
+  public EmployeeHierarchyService(DownstreamClient downstreamClient,
+      @Qualifier("ioExecutor") Executor ioExecutor) {
+    this.downstreamClient = downstreamClient;
+    this.ioExecutor = ioExecutor;
+  }
 
-  public EmployeeHierarchyService(RestTemplate restTemplate) {
-    this.restTemplate = restTemplate;
+  /**
+   * Retrieves the subordinate edges of a given employee as the raw response of the hierarchy
+   * service, so it can be returned to the caller without decoding and re-encoding it.
+   *
+   * @param employeeId the ID of the employee whose subordinates are to be retrieved
+   * @return the response body and content type of the hierarchy service
+   */
+  public ResponseEntity<byte[]> getSubordinates(Long employeeId) {
+    ResponseEntity<byte[]> response = downstreamClient.exchange(HttpMethod.GET, baseUrl,
+        "/subordinates/{employeeId}", null, byte[].class, employeeId);
+    return ResponseEntity.ok().contentType(contentType(response)).body(response.getBody());
   }
 
-  /** Creates HTTP headers with Basic Authentication. */
-  public HttpHeaders createHeaders() {
-    HttpHeaders headers = new HttpHeaders();
-    String auth = username + ":" + password;
-    String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-    headers.set("Authorization", "Basic " + encodedAuth);
-    headers.setContentType(MediaType.APPLICATION_JSON);
-    return headers;
+  /**
+   * Retrieves the IDs of the direct subordinates of a given employee.
+   *
+   * @param employeeId the ID of the employee whose subordinates are to be retrieved
+   * @return the IDs of the direct subordinates
+   */
+  public List<Long> getSubordinateIds(Long employeeId) {
+    HierarchyEdge[] edges = downstreamClient.exchange(HttpMethod.GET, baseUrl,
+        "/subordinates/{employeeId}", null, HierarchyEdge[].class, employeeId).getBody();
+    if (edges == null) {
+      return List.of();
+    }
+    List<Long> subordinateIds = new ArrayList<>(edges.length);
+    for (HierarchyEdge edge : edges) {
+      subordinateIds.add(edge.toEmployeeId());
+    }
+    return subordinateIds;
   }
 
   /**
-   * Retrieves a list of subordinates for a given employee.
+   * Retrieves the IDs of every employee below the given employee. The hierarchy is walked one
+   * level at a time and the subordinates of a whole level are fetched concurrently.
+   *
+   * @param employeeId the ID of the employee at the root of the subtree
+   * @return the IDs of all direct and indirect subordinates, nearest levels first
+   */
+  public List<Long> getSubtreeEmployeeIds(Long employeeId) {
+    Set<Long> visited = new LinkedHashSet<>();
+    visited.add(employeeId);
+    List<Long> level = List.of(employeeId);
+    while (!level.isEmpty()) {
+      List<CompletableFuture<List<Long>>> calls = new ArrayList<>();
+      for (Long id : level) {
+        calls.add(getSubordinateIdsAsync(id));
+      }
+      List<Long> next = new ArrayList<>();
+      for (CompletableFuture<List<Long>> call : calls) {
+        for (Long subordinateId : join(call)) {
+          if (visited.add(subordinateId)) {
+            next.add(subordinateId);
+          }
+        }
+      }
+      level = next;
+    }
+    visited.remove(employeeId);
+    return new ArrayList<>(visited);
+  }
+
+  /**
+   * Retrieves the IDs of the direct subordinates of a given employee on the I/O executor.
    *
    * @param employeeId the ID of the employee whose subordinates are to be retrieved
-   * @return a list of IDs representing the subordinates of the specified employee
+   * @return a future completing with the IDs of the direct subordinates
    */
-  public List<Long> getSubordinates(Long employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    ResponseEntity<List> response =
-        restTemplate.exchange(
-            BASE_URL + "/subordinates/" + employeeId, HttpMethod.GET, entity, List.class);
-    return response.getBody();
+  public CompletableFuture<List<Long>> getSubordinateIdsAsync(Long employeeId) {
+    return CompletableFuture.supplyAsync(() -> getSubordinateIds(employeeId), ioExecutor);
+  }
+
+  /**
+   * Retrieves the supervisor of the given employee on the I/O executor.
+   *
+   * @param employeeId the ID of the employee whose supervisor is to be retrieved
+   * @return a future completing with the ID of the supervisor, or null if there is none
+   */
+  public CompletableFuture<Long> getSupervisorAsync(Long employeeId) {
+    return CompletableFuture.supplyAsync(() -> getSupervisor(employeeId), ioExecutor);
+  }
+
+  /**
+   * Waits for an asynchronous call and rethrows its original failure.
+   *
+   * @param call the asynchronous call
+   * @return the result of the call
+   */
+  public static <T> T join(CompletableFuture<T> call) {
+    try {
+      return call.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
   }
 
   /**
@@ -65,13 +142,9 @@ public class EmployeeHierarchyService {
    *     supervisor
    */
   public Long getSupervisor(Long employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-
     try {
-      ResponseEntity<Object> response =
-              restTemplate.exchange(
-                      BASE_URL + "/supervisor/" + employeeId, HttpMethod.GET, entity, Object.class);
+      ResponseEntity<Object> response = downstreamClient.exchange(HttpMethod.GET, baseUrl,
+          "/supervisor/{employeeId}", null, Object.class, employeeId);
 
       if (response.getBody() instanceof String responseBody) {
           if (responseBody.contains("Supervisor for Employee with ID " + employeeId + " doesn't exist")) {
@@ -97,18 +170,26 @@ public class EmployeeHierarchyService {
 
 
   /**
-   * Retrieves the subtree of an employee with the given ID.
+   * Streams the subtree of an employee straight from the hierarchy service to the caller,
+   * passing the caller's If-None-Match through so the hierarchy service can answer 304 itself.
+   * The upstream status, content type and ETag are kept.
    *
    * @param employeeId the ID of the employee whose subtree is to be retrieved
-   * @return the subtree of the given employee
+   * @param ifNoneMatch the caller's If-None-Match header, or null
+   * @param response the response to write the subtree to
    */
-  public Object getSubtree(Long employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    ResponseEntity<Object> response =
-        restTemplate.exchange(
-            BASE_URL + "/tree/" + employeeId, HttpMethod.GET, entity, Object.class);
-    return response.getBody();
+  public void streamSubtree(Long employeeId, String ifNoneMatch, HttpServletResponse response) {
+    HttpHeaders conditional = new HttpHeaders();
+    if (ifNoneMatch != null) {
+      conditional.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+    downstreamClient.stream(HttpMethod.GET, baseUrl, "/tree/{employeeId}", conditional, response,
+        null, employeeId);
+  }
+
+  private static MediaType contentType(ResponseEntity<?> response) {
+    MediaType contentType = response.getHeaders().getContentType();
+    return contentType != null ? contentType : MediaType.APPLICATION_JSON;
   }
 
   /**
@@ -118,13 +199,8 @@ public class EmployeeHierarchyService {
    * @param employeeId the ID of the employee
    */
   public void addEdge(Long supervisorId, Long employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(null, headers);
-    restTemplate.exchange(
-        BASE_URL + "/addEdge/" + supervisorId + "/" + employeeId,
-        HttpMethod.POST,
-        entity,
-        String.class);
+    downstreamClient.exchange(HttpMethod.POST, baseUrl, "/addEdge/{supervisorId}/{employeeId}",
+        null, String.class, supervisorId, employeeId);
   }
 
   /**
@@ -133,10 +209,8 @@ public class EmployeeHierarchyService {
    * @param employeeId the ID of the employee whose supervisor edge is to be removed
    */
   public void removeEdge(Long employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    restTemplate.exchange(
-        BASE_URL + "/removeEdge/" + employeeId, HttpMethod.DELETE, entity, String.class);
+    downstreamClient.exchange(HttpMethod.DELETE, baseUrl, "/removeEdge/{employeeId}", null,
+        String.class, employeeId);
   }
 
   /**
@@ -192,13 +266,6 @@ public class EmployeeHierarchyService {
    * @return a ResponseEntity containing the error message and appropriate HTTP status code
    */
   public ResponseEntity<Object> handleException(Exception e) {
-    if (e instanceof HttpClientErrorException clientErrorException) {
-      return new ResponseEntity<>(
-              clientErrorException.getResponseBodyAsString(),
-              clientErrorException.getStatusCode()
-      );
-    }
-
-    return new ResponseEntity<>("Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR);
+    return DownstreamClient.errorResponse(e);
   }
 }
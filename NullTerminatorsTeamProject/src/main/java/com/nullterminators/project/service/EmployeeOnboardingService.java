@@ -0,0 +1,306 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.enums.OnboardingJobStatus;
+import com.nullterminators.project.enums.OnboardingStep;
+import com.nullterminators.project.model.OnboardingJob;
+import com.nullterminators.project.model.UserLoginDetails;
+import com.nullterminators.project.repository.OnboardingJobRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs employee onboarding as a persisted job (transactional outbox). A request is stored as an
+ * {@link OnboardingJob} and acknowledged straight away; workers then create the remote profile,
+ * the login and the client row, recording progress after every step so a retry resumes where the
+ * previous attempt stopped. The job row is versioned, so a worker whose job was requeued stops at
+ * its next save instead of overwriting the new owner.
+ */
+@Service
+public class EmployeeOnboardingService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmployeeOnboardingService.class);
+
+  private static final String PROFILE_KEY_PREFIX = "onboarding-job:";
+
+  private static final List<OnboardingJobStatus> FINISHED =
+      List.of(OnboardingJobStatus.COMPLETED, OnboardingJobStatus.FAILED);
+
+  private final OnboardingJobRepository onboardingJobRepository;
+  private final EmployeeProfileManagementService employeeProfileManagementService;
+  private final UserLoginDetailsService userLoginDetailsService;
+  private final ThreadPoolTaskExecutor onboardingExecutor;
+
+  @Value("${onboarding.max-attempts:5}")
+  private int maxAttempts;
+
+  @Value("${onboarding.retry-backoff-ms:2000}")
+  private long retryBackoffMs;
+
+  @Value("${onboarding.poll-batch-size:50}")
+  private int pollBatchSize;
+
+  @Value("${onboarding.stale-after-ms:300000}")
+  private long staleAfterMs;
+
+  public EmployeeOnboardingService(OnboardingJobRepository onboardingJobRepository,
+      EmployeeProfileManagementService employeeProfileManagementService,
+      UserLoginDetailsService userLoginDetailsService,
+      @Qualifier("onboardingExecutor") ThreadPoolTaskExecutor onboardingExecutor) {
+    this.onboardingJobRepository = onboardingJobRepository;
+    this.employeeProfileManagementService = employeeProfileManagementService;
+    this.userLoginDetailsService = userLoginDetailsService;
+    this.onboardingExecutor = onboardingExecutor;
+  }
+
+  /**
+   * Persists an onboarding job and hands it to a worker. Submitting the same idempotency key
+   * again returns the existing job instead of creating a new one. Without a client key only a
+   * job still in flight for the username is returned; a finished one does not block a new run.
+   *
+   * @param idempotencyKey client supplied key, or null to key the job on the username
+   * @return the persisted job
+   */
+  public OnboardingJob submit(String idempotencyKey, String name, String phoneNumber,
+      String gender, int age, LocalDate startDate, String designation, String email,
+      String emergencyContact, int baseSalary, String username, String password) {
+    boolean clientKey = idempotencyKey != null && !idempotencyKey.isBlank();
+    String key = clientKey ? idempotencyKey : "user:" + username;
+    Optional<OnboardingJob> existing = onboardingJobRepository.findByIdempotencyKey(key);
+    if (existing.isPresent()) {
+      if (clientKey || !FINISHED.contains(existing.get().getStatus())) {
+        return existing.get();
+      }
+      onboardingJobRepository.retireKey(existing.get().getId(),
+          key + ":" + existing.get().getId(), FINISHED);
+    }
+
+    Instant now = Instant.now();
+    OnboardingJob job = new OnboardingJob();
+    job.setIdempotencyKey(key);
+    job.setName(name);
+    job.setPhoneNumber(phoneNumber);
+    job.setGender(gender);
+    job.setAge(age);
+    job.setStartDate(startDate);
+    job.setDesignation(designation);
+    job.setEmail(email);
+    job.setEmergencyContact(emergencyContact);
+    job.setBaseSalary(baseSalary);
+    job.setUsername(username);
+    job.setPasswordHash(userLoginDetailsService.encodePassword(password));
+    job.setStatus(OnboardingJobStatus.PENDING);
+    job.setStep(OnboardingStep.CREATE_PROFILE);
+    job.setAttempts(0);
+    job.setNextAttemptAt(now);
+    job.setCreatedAt(now);
+    job.setUpdatedAt(now);
+
+    try {
+      job = onboardingJobRepository.save(job);
+    } catch (DataIntegrityViolationException e) {
+      // a concurrent submit with the same key won the insert
+      return onboardingJobRepository.findByIdempotencyKey(key).orElseThrow(() -> e);
+    }
+    dispatch(job.getId());
+    return job;
+  }
+
+  /**
+   * Looks up an onboarding job.
+   *
+   * @param jobId job id
+   * @return the job, if it exists
+   */
+  public Optional<OnboardingJob> getJob(Long jobId) {
+    return onboardingJobRepository.findById(jobId);
+  }
+
+  /**
+   * Describes the progress of a job without exposing the stored password hash.
+   *
+   * @param job onboarding job
+   * @return status view of the job
+   */
+  public Map<String, Object> describe(OnboardingJob job) {
+    Map<String, Object> view = new LinkedHashMap<>();
+    view.put("jobId", job.getId());
+    view.put("status", job.getStatus());
+    view.put("step", job.getStep());
+    view.put("employeeId", job.getEmployeeId());
+    view.put("attempts", job.getAttempts());
+    view.put("lastError", job.getLastError());
+    view.put("createdAt", job.getCreatedAt());
+    view.put("updatedAt", job.getUpdatedAt());
+    return view;
+  }
+
+  /**
+   * Picks up jobs that are due, including retries and jobs that could not be dispatched because
+   * the worker queue was full.
+   */
+  @Scheduled(fixedDelayString = "${onboarding.poll-interval-ms:1000}")
+  public void pollReadyJobs() {
+    Instant now = Instant.now();
+    onboardingJobRepository.requeueStale(OnboardingJobStatus.RUNNING, OnboardingJobStatus.PENDING,
+        now.minusMillis(staleAfterMs), now);
+    for (Long jobId : onboardingJobRepository.findReadyJobIds(OnboardingJobStatus.PENDING, now,
+        PageRequest.of(0, pollBatchSize))) {
+      if (!dispatch(jobId)) {
+        break;
+      }
+    }
+  }
+
+  private boolean dispatch(Long jobId) {
+    try {
+      onboardingExecutor.execute(() -> run(jobId));
+      return true;
+    } catch (TaskRejectedException e) {
+      // left PENDING; the poller retries once workers free up
+      return false;
+    }
+  }
+
+  private void run(Long jobId) {
+    if (onboardingJobRepository.transition(jobId, OnboardingJobStatus.PENDING,
+        OnboardingJobStatus.RUNNING, Instant.now()) != 1) {
+      return;
+    }
+    OnboardingJob job = onboardingJobRepository.findById(jobId).orElse(null);
+    if (job == null) {
+      return;
+    }
+
+    try {
+      while (job.getStep() != OnboardingStep.DONE) {
+        runStep(job);
+        job.setUpdatedAt(Instant.now());
+        job = onboardingJobRepository.save(job);
+      }
+      job.setStatus(OnboardingJobStatus.COMPLETED);
+      job.setPasswordHash(null);
+      job.setLastError(null);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      log.info("Onboarding job {} was requeued while running; leaving it to the new worker", jobId);
+      return;
+    } catch (PermanentOnboardingException e) {
+      markFailed(job, e.getMessage());
+    } catch (Exception e) {
+      job.setAttempts(job.getAttempts() + 1);
+      job.setLastError(truncate(e.getMessage()));
+      if (job.getAttempts() >= maxAttempts) {
+        markFailed(job, job.getLastError());
+      } else {
+        long backoff = retryBackoffMs << Math.min(job.getAttempts() - 1, 10);
+        job.setStatus(OnboardingJobStatus.PENDING);
+        job.setNextAttemptAt(Instant.now().plus(Duration.ofMillis(backoff)));
+      }
+    }
+    job.setUpdatedAt(Instant.now());
+    try {
+      job = onboardingJobRepository.save(job);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      log.info("Onboarding job {} was requeued while running; leaving it to the new worker", jobId);
+      return;
+    }
+    if (job.getStatus() == OnboardingJobStatus.FAILED) {
+      compensate(job);
+    }
+  }
+
+  private void runStep(OnboardingJob job) {
+    switch (job.getStep()) {
+      // recorded before the remote call, so a retry knows the create may already have gone out
+      case CREATE_PROFILE -> job.setStep(OnboardingStep.PROFILE_REQUESTED);
+      case PROFILE_REQUESTED -> {
+        // keyed by the job, so a retry after a lost response gets back the profile this job
+        // created rather than a second one, and never someone else's
+        int employeeId = employeeProfileManagementService.createEmployee(job.getName(),
+            job.getPhoneNumber(), job.getGender(), job.getAge(), job.getStartDate(),
+            job.getDesignation(), job.getEmail(), job.getEmergencyContact(), job.getBaseSalary(),
+            PROFILE_KEY_PREFIX + job.getId());
+        if (employeeId == -1) {
+          throw new IllegalStateException("Failed to create employee profile.");
+        }
+        job.setEmployeeId(employeeId);
+        job.setStep(OnboardingStep.CREATE_LOGIN);
+      }
+      case CREATE_LOGIN -> {
+        Optional<UserLoginDetails> existing = userLoginDetailsService.findByUsername(job.getUsername());
+        if (existing.isPresent()) {
+          if (!job.getEmployeeId().equals(existing.get().getEmployeeId())) {
+            throw new PermanentOnboardingException(
+                "Username " + job.getUsername() + " already exists");
+          }
+        } else {
+          String error = userLoginDetailsService.createUserWithEncodedPassword(job.getEmployeeId(),
+              job.getUsername(), job.getPasswordHash(), job.getDesignation());
+          if (!error.isEmpty()) {
+            throw new IllegalStateException(error);
+          }
+        }
+        job.setStep(OnboardingStep.ADD_TO_CLIENT_DB);
+      }
+      case ADD_TO_CLIENT_DB -> {
+        employeeProfileManagementService.addEmployeeToClientDatabase(job.getEmployeeId(),
+            job.getDesignation());
+        job.setStep(OnboardingStep.DONE);
+      }
+      default -> {
+      }
+    }
+  }
+
+  private static void markFailed(OnboardingJob job, String error) {
+    job.setStatus(OnboardingJobStatus.FAILED);
+    job.setLastError(truncate(error));
+    job.setPasswordHash(null);
+  }
+
+  /**
+   * Undoes what a failed job created: the login, if it belongs to the job's employee, and the
+   * remote profile, which also removes a client row written by a partly applied last step.
+   */
+  private void compensate(OnboardingJob job) {
+    if (job.getEmployeeId() == null) {
+      return;
+    }
+    try {
+      userLoginDetailsService.deleteLogin(job.getUsername(), job.getEmployeeId());
+      employeeProfileManagementService.deleteEmployee(job.getEmployeeId());
+    } catch (Exception e) {
+      log.warn("Could not remove orphaned profile {} for onboarding job {}: {}",
+          job.getEmployeeId(), job.getId(), e.getMessage());
+    }
+  }
+
+  private static String truncate(String message) {
+    if (message == null) {
+      return "Unknown error";
+    }
+    return message.length() > 1000 ? message.substring(0, 1000) : message;
+  }
+
+  /** Failure that retrying cannot fix. */
+  private static class PermanentOnboardingException extends RuntimeException {
+    PermanentOnboardingException(String message) {
+      super(message);
+    }
+  }
+}
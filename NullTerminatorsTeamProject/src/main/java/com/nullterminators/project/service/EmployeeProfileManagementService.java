@@ -2,55 +2,55 @@ package com.nullterminators.project.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.management.RuntimeErrorException;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.nullterminators.project.model.EmployeeProfileManagement;
 import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
 
 /** Service class for making REST API calls to the Employee Profile Management service. */
 @Service
 public class EmployeeProfileManagementService {
 
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  private static final String CREATE_EMPLOYEE_TEMPLATE = "/createNewEmployee?name={name}"
+      + "&phoneNumber={phoneNumber}&gender={gender}&age={age}&startDate={startDate}"
+      + "&designation={designation}&email={email}&emergencyContact={emergencyContact}"
+      + "&baseSalary={baseSalary}";
+
   @Autowired
   private EmployeeProfileManagementRepository employeeProfileManagementRepository;
 
-  private final RestTemplate restTemplate;
-  private static final String BASE_URL = "http://localhost:8080/employeeProfile/";
+  @Autowired
+  private DesignationIndex designationIndex;
 
-  @Value("${service.auth.username}")
-  private String username;
+  @Autowired
+  private DesignationHeadCountService designationHeadCountService;
 
-  @Value("${service.auth.password}")
-  private String password;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
 
-  public EmployeeProfileManagementService(RestTemplate restTemplate) {
-    this.restTemplate = restTemplate;
-  }
+  private final DownstreamClient downstreamClient;
+
+  @Value("${service.employee-profile.url:http://localhost:8080/employeeProfile}")
+  private String baseUrl;
 
-  /** Creates HTTP headers with Basic Authentication. */
-  public HttpHeaders createHeaders() {
-    HttpHeaders headers = new HttpHeaders();
-    String auth = username + ":" + password;
-    String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-    headers.set("Authorization", "Basic " + encodedAuth);
-    headers.setContentType(MediaType.APPLICATION_JSON);
-    return headers;
+  public EmployeeProfileManagementService(DownstreamClient downstreamClient) {
+    this.downstreamClient = downstreamClient;
   }
 
   /**
@@ -69,8 +69,28 @@ public class EmployeeProfileManagementService {
   public int createEmployee(String name, String phoneNumber, String gender
       , int age, LocalDate startDate, String designation, String email, String emergencyContact
       , int baseSalary) {
+    return createEmployee(name, phoneNumber, gender, age, startDate, designation, email
+        , emergencyContact, baseSalary, null);
+  }
 
-    HttpHeaders headers = createHeaders();
+  /**
+   * Creates employee under an idempotency key. Repeating a create with the same key returns the
+   * profile made by the first one instead of a new profile.
+   * @param name Name of new employee
+   * @param phoneNumber Phone Number of new employee
+   * @param gender Gender of new employee
+   * @param age Age of new employee
+   * @param startDate Starting date of new employee
+   * @param designation Designation of new employee
+   * @param email Email of new employee
+   * @param emergencyContact Emergency Contact of new employee
+   * @param baseSalary Base Salary of new employee
+   * @param idempotencyKey key identifying this create, or null to send none
+   * @return Id of of new employee created if successful
+   */
+  public int createEmployee(String name, String phoneNumber, String gender
+      , int age, LocalDate startDate, String designation, String email, String emergencyContact
+      , int baseSalary, String idempotencyKey) {
 
     var requestBody = new LinkedHashMap<String, Object>();
     requestBody.put("name", name);
@@ -83,17 +103,15 @@ public class EmployeeProfileManagementService {
     requestBody.put("emergencyContact", emergencyContact);
     requestBody.put("baseSalary", baseSalary);
 
-    HttpEntity<Map<String, Object>> reqEntity = new HttpEntity<>(requestBody, headers);
-
     try {
-      String url = BASE_URL + "createNewEmployee?" + "name=" + name + "&phoneNumber="
-          + phoneNumber + "&gender=" + gender + "&age=" + age + "&startDate=" + startDate
-          + "&designation=" + designation + "&email=" + email + "&emergencyContact="
-          + emergencyContact + "&baseSalary=" + baseSalary;
-
+      // the service reads the query parameters; each value is encoded in full
+      HttpHeaders extraHeaders = new HttpHeaders();
+      if (idempotencyKey != null) {
+        extraHeaders.set(IDEMPOTENCY_KEY, idempotencyKey);
+      }
       ResponseEntity<Integer> response =
-        restTemplate.exchange(url, HttpMethod.POST
-        , reqEntity, Integer.class);
+        downstreamClient.exchangeWithHeaders(HttpMethod.POST, baseUrl, CREATE_EMPLOYEE_TEMPLATE
+        , requestBody, extraHeaders, Integer.class, requestBody);
       return response.getBody();
     } catch(Exception e) {
       System.out.println("Error: " + e);
@@ -107,10 +125,31 @@ public class EmployeeProfileManagementService {
    * @param designation designation of employee
    */
   public void addEmployeeToClientDatabase(int id, String designation) {
-    EmployeeProfileManagement employee = new EmployeeProfileManagement();
-    employee.setId(id);
-    employee.setDesignation(designation);
-    employeeProfileManagementRepository.save(employee);
+    transactionTemplate.executeWithoutResult(status -> {
+      // the insert and the row lock serialize concurrent adds of the same employee, so the
+      // previous designation is only counted out once
+      if (employeeProfileManagementRepository.insertIfAbsent(id, designation) == 1) {
+        designationHeadCountService.increment(designation, 1);
+        return;
+      }
+      employeeProfileManagementRepository.findByIdForUpdate(id).ifPresent(employee -> {
+        String previous = employee.getDesignation();
+        if (!designation.equals(previous)) {
+          employee.setDesignation(designation);
+          designationHeadCountService.increment(previous, -1);
+          designationHeadCountService.increment(designation, 1);
+        }
+      });
+    });
+    designationIndex.add(id, designation);
+  }
+
+  /**
+   * Returns the head-count of every designation in the client.
+   * @return list of designation and total pairs
+   */
+  public List<Map<String, Object>> getDesignationCounts() {
+    return designationHeadCountService.getCounts();
   }
 
   /**
@@ -118,12 +157,9 @@ public class EmployeeProfileManagementService {
    * @return
    */
   public List<Integer> getAllEmployees() {
-    HttpHeaders headers = createHeaders();
-
-    HttpEntity<String> entity = new HttpEntity<>(headers);
     ResponseEntity<String> response =
-        restTemplate.exchange(BASE_URL + "/getAllEmployees", HttpMethod.GET
-        , entity, String.class);
+        downstreamClient.exchange(HttpMethod.GET, baseUrl, "/getAllEmployees"
+        , null, String.class);
     if (response.getStatusCode() == HttpStatus.OK) {
       String employees = response.getBody();
       List<Integer> allEmployeeIds = new ArrayList<>();
@@ -154,24 +190,14 @@ public class EmployeeProfileManagementService {
   }
 
   /**
-   * Get employee as per id given.
-   * @param id
-   * @return
+   * Streams an employee from the employee profile service straight to the caller, keeping the
+   * upstream status and content type.
+   * @param id employee id
+   * @param response response to write the employee to
    */
-  public String getEmployee(int id) {
-    HttpHeaders headers = createHeaders();
-
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    // System.out.println(+"{id}");
-    ResponseEntity<String> response =
-        restTemplate.exchange(BASE_URL + id, HttpMethod.GET
-        , entity, String.class);
-    if (response.getStatusCode() == HttpStatus.OK) {
-      return response.getBody();
-    } else {
-      throw new RuntimeErrorException(null, "Failed to fetch employee. Status code: "
-          + response.getStatusCode());
-    }
+  public void streamEmployee(int id, HttpServletResponse response) {
+    downstreamClient.stream(HttpMethod.GET, baseUrl, "/{id}", HttpHeaders.EMPTY, response
+        , null, id);
   }
 
   /**
@@ -180,14 +206,16 @@ public class EmployeeProfileManagementService {
    * @return true if successful
    */
   public boolean deleteEmployee(int id) {
-    HttpHeaders headers = createHeaders();
-
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    // System.out.println(+"{id}");
     ResponseEntity<String> response =
-        restTemplate.exchange(BASE_URL + id, HttpMethod.DELETE
-        , entity, String.class);
+        downstreamClient.exchange(HttpMethod.DELETE, baseUrl, "/{id}"
+        , null, String.class, id);
     if (response.getStatusCode() == HttpStatus.OK) {
+      transactionTemplate.executeWithoutResult(status ->
+          employeeProfileManagementRepository.findByIdForUpdate(id).ifPresent(employee -> {
+            employeeProfileManagementRepository.delete(employee);
+            designationHeadCountService.increment(employee.getDesignation(), -1);
+          }));
+      designationIndex.remove(id);
       return true;
     } else {
       throw new RuntimeErrorException(null, "Failed to fetch employee. Status code: "
@@ -0,0 +1,136 @@
+package com.nullterminators.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores Idempotency-Key claims and the responses they produced. The idempotency_record table is
+ * the source of truth, so a key claimed on one instance is honoured on every other; completed
+ * responses are also kept in a bounded in-memory cache so replays do not touch the database.
+ */
+@Component
+public class IdempotencyStore {
+
+  private static final String CLAIM = "INSERT INTO idempotency_record "
+      + "(record_key, request_hash, claim_token, status, created_at) "
+      + "VALUES (?, ?, ?, 'IN_PROGRESS', ?) "
+      + "ON CONFLICT (record_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, "
+      + "claim_token = EXCLUDED.claim_token, created_at = EXCLUDED.created_at "
+      + "WHERE idempotency_record.status = 'IN_PROGRESS' AND idempotency_record.created_at < ?";
+
+  private static final String FIND = "SELECT request_hash, status, response_status, "
+      + "response_content_type, response_body FROM idempotency_record WHERE record_key = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Cache<String, StoredResponse> completed;
+  private final Duration ttl;
+  private final Duration inProgressTimeout;
+
+  public IdempotencyStore(JdbcTemplate jdbcTemplate,
+      @Value("${idempotency.ttl-ms:86400000}") long ttlMs,
+      @Value("${idempotency.in-progress-timeout-ms:300000}") long inProgressTimeoutMs,
+      @Value("${idempotency.cache.max-entries:10000}") long maxCachedResponses) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.ttl = Duration.ofMillis(ttlMs);
+    this.inProgressTimeout = Duration.ofMillis(inProgressTimeoutMs);
+    this.completed = Caffeine.newBuilder()
+        .maximumSize(maxCachedResponses)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  /**
+   * Claims a key for a request. A claim whose request died without completing is taken over once
+   * it is older than the in-progress timeout.
+   *
+   * @param key user-scoped idempotency key
+   * @param requestHash hash of the request
+   * @param claimToken unique to this request; proves ownership to {@link #complete} and
+   *     {@link #release}
+   * @return null if the caller now owns the key, otherwise what is already recorded for it
+   */
+  public StoredResponse claim(String key, String requestHash, String claimToken) {
+    StoredResponse cached = completed.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    Instant now = Instant.now();
+    int claimed = jdbcTemplate.update(CLAIM, key, requestHash, claimToken, Timestamp.from(now),
+        Timestamp.from(now.minus(inProgressTimeout)));
+    if (claimed == 1) {
+      return null;
+    }
+    List<StoredResponse> existing = jdbcTemplate.query(FIND, (rs, row) -> new StoredResponse(
+        rs.getString("request_hash"),
+        "COMPLETED".equals(rs.getString("status")),
+        rs.getInt("response_status"),
+        rs.getString("response_content_type"),
+        rs.getBytes("response_body")), key);
+    if (existing.isEmpty()) {
+      // released between the insert and the read; let the caller try again
+      return claim(key, requestHash, claimToken);
+    }
+    StoredResponse response = existing.get(0);
+    if (response.completed()) {
+      completed.put(key, response);
+    }
+    return response;
+  }
+
+  /**
+   * Records the response of a claimed request. Nothing is stored if the claim was taken over in
+   * the meantime.
+   *
+   * @param key user-scoped idempotency key
+   * @param claimToken the token the key was claimed with
+   * @param response the response to replay for retries
+   */
+  public void complete(String key, String claimToken, StoredResponse response) {
+    int updated = jdbcTemplate.update("UPDATE idempotency_record SET status = 'COMPLETED', "
+            + "response_status = ?, response_content_type = ?, response_body = ? "
+            + "WHERE record_key = ? AND claim_token = ? AND status = 'IN_PROGRESS'",
+        response.status(), response.contentType(), response.body(), key, claimToken);
+    if (updated == 1) {
+      completed.put(key, response);
+    }
+  }
+
+  /**
+   * Gives up a claim so the request can be retried, e.g. after a server error. A claim that
+   * another request has taken over is left alone.
+   *
+   * @param key user-scoped idempotency key
+   * @param claimToken the token the key was claimed with
+   */
+  public void release(String key, String claimToken) {
+    jdbcTemplate.update("DELETE FROM idempotency_record "
+        + "WHERE record_key = ? AND claim_token = ? AND status = 'IN_PROGRESS'", key, claimToken);
+  }
+
+  /** Deletes records older than the retention period. */
+  @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+  public void purgeExpired() {
+    jdbcTemplate.update("DELETE FROM idempotency_record WHERE created_at < ?",
+        Timestamp.from(Instant.now().minus(ttl)));
+  }
+
+  /**
+   * What is recorded for a key.
+   *
+   * @param requestHash hash of the request that claimed the key
+   * @param completed false while the original request is still running
+   * @param status HTTP status of the stored response
+   * @param contentType content type of the stored response
+   * @param body body of the stored response
+   */
+  public record StoredResponse(String requestHash, boolean completed, int status,
+      String contentType, byte[] body) {}
+}
@@ -1,14 +1,21 @@
 package com.nullterminators.project.service;
 
+import com.nullterminators.project.config.ReplicaRead;
+import com.nullterminators.project.dto.ChangeStamp;
+import com.nullterminators.project.dto.PatientTimelineEntry;
 import com.nullterminators.project.model.Patient;
 import com.nullterminators.project.model.PatientRecords;
 import com.nullterminators.project.repository.PatientRecordsRepository;
 import com.nullterminators.project.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -25,6 +32,7 @@ public class PatientService {
     public Pair<String, String> createPatient(Patient patient) {
         try {
             patient.setId(null);
+            patient.setVersion(null);
             patientRepository.save(patient);
             return Pair.of(patient.getId().toString(), "");
         }
@@ -34,17 +42,18 @@ public class PatientService {
         }
     }
 
-    public boolean updatePatient(Patient patient) {
-        try {
-            patientRepository.save(patient);
-            return true;
-        }
-        catch (DataIntegrityViolationException | TransactionSystemException e) {
-            System.out.println(e);
-            return false;
-        }
+    /**
+     * Updates the phone number of a patient without loading it.
+     *
+     * @return number of patients updated, 0 if the patient does not exist
+     * @throws DataIntegrityViolationException if the phone number is already taken
+     */
+    @Transactional
+    public int updatePhoneNumber(Integer id, String phoneNumber) {
+        return patientRepository.updatePhoneNumber(id, phoneNumber);
     }
 
+    @Transactional(readOnly = true)
     public Patient getPatientById(Integer id) {
         return patientRepository.findById(id).orElse(null);
     }
@@ -56,6 +65,7 @@ public class PatientService {
     public Pair<String, String> createPatientRecords(PatientRecords record) {
         try {
             record.setId(null);
+            record.setVersion(null);
             record.setDate(LocalDate.now());
             patientRecordsRepository.save(record);
             return Pair.of(record.getId().toString(), "");
@@ -66,22 +76,40 @@ public class PatientService {
         }
     }
 
+    @Transactional(readOnly = true)
     public PatientRecords getPatientRecordsById(Integer id) {
         return patientRecordsRepository.findById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public List<PatientRecords> getPatientRecordsByPatientId(Integer id) {
         return patientRecordsRepository.findAllByPatientId(id);
     }
 
+    /**
+     * Returns the change stamp of a patient's records without loading them.
+     */
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public ChangeStamp getPatientRecordsStamp(Integer patientId) {
+        return patientRecordsRepository.findChangeStampByPatientId(patientId);
+    }
+
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public List<Patient> getPatients() {
         return patientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public List<PatientRecords> getPatientRecords() {
         return patientRecordsRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    @ReplicaRead
     public List<PatientRecords> getPatientRecordsByDoctorId(Integer id) {
         return patientRecordsRepository.findAllByDoctorId(id);
     }
@@ -90,14 +118,63 @@ public class PatientService {
         patientRecordsRepository.deleteById(id);
     }
 
-    public boolean updatePatientRecords(PatientRecords record) {
-        try {
-            patientRecordsRepository.save(record);
-            return true;
-        }
-        catch (DataIntegrityViolationException | TransactionSystemException e) {
-            System.out.println(e);
-            return false;
-        }
+    /**
+     * Searches patients by name (fuzzy) and phone number (prefix).
+     */
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<Patient> searchPatients(String query, Pageable pageable) {
+        return patientRepository.search(query, escapeLike(query) + "%", pageable);
+    }
+
+    /**
+     * Searches patient records by the words in their prescription and notes.
+     */
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public Page<PatientRecords> searchPatientRecords(String query, Pageable pageable) {
+        return patientRecordsRepository.search(query, pageable);
+    }
+
+    /**
+     * Returns up to {@code limit} timeline entries of a patient after the given (date, id) cursor,
+     * in a single query.
+     */
+    @Transactional(readOnly = true)
+    @ReplicaRead
+    public List<PatientTimelineEntry> getPatientTimeline(Integer patientId, LocalDate from, LocalDate to,
+                                                         LocalDate afterDate, Integer afterId, int limit) {
+        return patientRecordsRepository.findTimeline(patientId, from, to, afterDate, afterId,
+                PageRequest.of(0, limit));
+    }
+
+    /** Escapes LIKE wildcards so user input only ever matches literally. */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Transactional(readOnly = true)
+    public boolean patientRecordExists(Integer id) {
+        return patientRecordsRepository.existsById(id);
+    }
+
+    /**
+     * Updates the prescription of a record without loading it.
+     *
+     * @return number of records updated, 0 if the record does not exist
+     */
+    @Transactional
+    public int updatePrescription(Integer id, String prescription) {
+        return patientRecordsRepository.updatePrescription(id, prescription);
+    }
+
+    /**
+     * Updates the notes of a record without loading it.
+     *
+     * @return number of records updated, 0 if the record does not exist
+     */
+    @Transactional
+    public int updateNotes(Integer id, String notes) {
+        return patientRecordsRepository.updateNotes(id, notes);
     }
 }
@@ -0,0 +1,108 @@
+package com.nullterminators.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-employee cache of payroll service reads. Every payroll write goes through
+ * {@link PayrollService}, which invalidates the affected employee (or everyone, for company-wide
+ * runs); the TTL only bounds staleness from changes made outside this client.
+ */
+@Component
+public class PayrollCache {
+
+  private final Cache<Integer, Pair<HttpStatus, Object>> payrolls;
+
+  // bumped by every invalidation so a read that raced a write does not cache what it saw
+  private final AtomicLong generation = new AtomicLong();
+
+  public PayrollCache(@Value("${payroll.cache.ttl-ms:300000}") long ttlMs,
+      @Value("${payroll.cache.max-entries:10000}") long maxEntries,
+      MeterRegistry meterRegistry) {
+    this.payrolls = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, payrolls, "payroll");
+  }
+
+  /**
+   * Returns the cached payroll of an employee, loading it on a miss. Only successful responses
+   * are cached.
+   *
+   * @param employeeId employee id
+   * @param loader fetches the payroll from the payroll service
+   * @return status and body of the payroll response
+   */
+  public Pair<HttpStatus, Object> get(Integer employeeId, Supplier<Pair<HttpStatus, Object>> loader) {
+    Pair<HttpStatus, Object> cached = payrolls.getIfPresent(employeeId);
+    if (cached != null) {
+      return cached;
+    }
+    long seen = generation();
+    Pair<HttpStatus, Object> result = loader.get();
+    put(employeeId, seen, result);
+    return result;
+  }
+
+  /**
+   * Returns the cached payroll of an employee without loading it.
+   *
+   * @param employeeId employee id
+   * @return the cached response, or null
+   */
+  public Pair<HttpStatus, Object> getIfPresent(Integer employeeId) {
+    return payrolls.getIfPresent(employeeId);
+  }
+
+  /**
+   * Returns the current invalidation generation. Take it before fetching a payroll that is to be
+   * passed to {@link #put}.
+   *
+   * @return the generation
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a payroll fetched by the caller, unless it is not a success or an invalidation has
+   * happened since the fetch started.
+   *
+   * @param employeeId employee id
+   * @param seenGeneration {@link #generation()} taken before the fetch
+   * @param result status and body of the payroll response
+   */
+  public void put(Integer employeeId, long seenGeneration, Pair<HttpStatus, Object> result) {
+    if (result.getFirst().is2xxSuccessful()) {
+      payrolls.asMap().compute(employeeId,
+          (id, current) -> generation.get() == seenGeneration ? result : current);
+    }
+  }
+
+  /**
+   * Drops the cached payroll of an employee.
+   *
+   * @param employeeId employee id
+   */
+  public void invalidate(Integer employeeId) {
+    generation.incrementAndGet();
+    payrolls.invalidate(employeeId);
+  }
+
+  /** Drops every cached payroll. */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    payrolls.invalidateAll();
+  }
+}
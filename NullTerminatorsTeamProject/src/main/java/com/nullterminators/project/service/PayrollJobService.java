@@ -0,0 +1,259 @@
+package com.nullterminators.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullterminators.project.enums.PayrollJobStatus;
+import com.nullterminators.project.enums.PayrollJobType;
+import com.nullterminators.project.model.PayrollJob;
+import com.nullterminators.project.repository.PayrollJobRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs company-wide payroll generation and deletion as persisted jobs. Submitting returns the job
+ * straight away; a worker then calls the payroll service and stores its response for later
+ * retrieval. Only one active job exists per type, month and year, enforced by a partial unique
+ * index, and jobs left behind by a stopped instance are picked up again.
+ */
+@Service
+public class PayrollJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(PayrollJobService.class);
+
+  private static final Set<PayrollJobStatus> ACTIVE =
+      EnumSet.of(PayrollJobStatus.PENDING, PayrollJobStatus.RUNNING);
+
+  private final PayrollJobRepository payrollJobRepository;
+  private final PayrollService payrollService;
+  private final ThreadPoolTaskExecutor payrollJobExecutor;
+  private final ObjectMapper objectMapper;
+  private final Set<Long> runningHere = ConcurrentHashMap.newKeySet();
+
+  @Value("${payroll-job.poll-batch-size:10}")
+  private int pollBatchSize;
+
+  @Value("${payroll-job.stale-after-ms:120000}")
+  private long staleAfterMs;
+
+  @Value("${payroll-job.retention-days:30}")
+  private long retentionDays;
+
+  public PayrollJobService(PayrollJobRepository payrollJobRepository,
+      PayrollService payrollService,
+      @Qualifier("payrollJobExecutor") ThreadPoolTaskExecutor payrollJobExecutor,
+      ObjectMapper objectMapper) {
+    this.payrollJobRepository = payrollJobRepository;
+    this.payrollService = payrollService;
+    this.payrollJobExecutor = payrollJobExecutor;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Submits a generate or delete run for a month. If a run of the same type for the same month is
+   * already pending or running, that job is returned instead of starting another.
+   *
+   * @param type generate or delete
+   * @param updates request body for the payroll service; must contain month and year
+   * @return the job, or null if month or year is missing or invalid
+   */
+  public PayrollJob submit(PayrollJobType type, Map<String, Object> updates) {
+    if (!(updates.get("month") instanceof Integer month) || !(updates.get("year") instanceof Integer year)
+        || month < 1 || month > 12) {
+      return null;
+    }
+    Optional<PayrollJob> active =
+        payrollJobRepository.findFirstByTypeAndMonthAndYearAndStatusIn(type, month, year, ACTIVE);
+    if (active.isPresent()) {
+      return active.get();
+    }
+
+    Instant now = Instant.now();
+    PayrollJob job = new PayrollJob();
+    job.setType(type);
+    job.setMonth(month);
+    job.setYear(year);
+    job.setPayload(toJson(updates));
+    job.setStatus(PayrollJobStatus.PENDING);
+    job.setCreatedAt(now);
+    job.setUpdatedAt(now);
+    try {
+      job = payrollJobRepository.save(job);
+    } catch (DataIntegrityViolationException e) {
+      // a concurrent submit for the same month won the insert
+      return payrollJobRepository.findFirstByTypeAndMonthAndYearAndStatusIn(type, month, year, ACTIVE)
+          .orElseThrow(() -> e);
+    }
+    dispatch(job.getId());
+    return job;
+  }
+
+  /**
+   * Looks up a payroll job.
+   *
+   * @param jobId job id
+   * @return the job, if it exists
+   */
+  public Optional<PayrollJob> getJob(Long jobId) {
+    return payrollJobRepository.findById(jobId);
+  }
+
+  /**
+   * Cancels a job that has not started yet. A running job cannot be cancelled because the
+   * payroll service offers no way to abort a run.
+   *
+   * @param jobId job id
+   * @return true if the job was cancelled
+   */
+  public boolean cancel(Long jobId) {
+    return payrollJobRepository.transition(jobId, PayrollJobStatus.PENDING,
+        PayrollJobStatus.CANCELLED, Instant.now()) == 1;
+  }
+
+  /**
+   * Describes a job, including the stored payroll service response once it has finished.
+   *
+   * @param job payroll job
+   * @return status view of the job
+   */
+  public Map<String, Object> describe(PayrollJob job) {
+    Map<String, Object> view = new LinkedHashMap<>();
+    view.put("jobId", job.getId());
+    view.put("type", job.getType());
+    view.put("month", job.getMonth());
+    view.put("year", job.getYear());
+    view.put("status", job.getStatus());
+    view.put("createdAt", job.getCreatedAt());
+    view.put("startedAt", job.getStartedAt());
+    view.put("finishedAt", job.getFinishedAt());
+    Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+    view.put("elapsedMs", job.getStartedAt() != null
+        ? Duration.between(job.getStartedAt(), end).toMillis() : null);
+    view.put("resultStatus", job.getResultStatus());
+    view.put("result", fromJson(job.getResult()));
+    view.put("lastError", job.getLastError());
+    return view;
+  }
+
+  /**
+   * Heartbeat for the jobs this instance is running, so they are not mistaken for stale ones. It
+   * is a task of its own so slow polling or other scheduled work cannot delay it.
+   */
+  @Scheduled(fixedDelayString = "${payroll-job.heartbeat-interval-ms:30000}")
+  public void heartbeat() {
+    if (!runningHere.isEmpty()) {
+      payrollJobRepository.touch(runningHere, PayrollJobStatus.RUNNING, Instant.now());
+    }
+  }
+
+  /**
+   * Picks up pending jobs, including jobs that could not be dispatched because the worker queue
+   * was full and jobs whose instance stopped while running them.
+   */
+  @Scheduled(fixedDelayString = "${payroll-job.poll-interval-ms:5000}")
+  public void pollPendingJobs() {
+    Instant now = Instant.now();
+    payrollJobRepository.requeueStale(PayrollJobStatus.RUNNING, PayrollJobStatus.PENDING,
+        now.minusMillis(staleAfterMs), now);
+    for (Long jobId : payrollJobRepository.findJobIdsByStatus(PayrollJobStatus.PENDING,
+        PageRequest.of(0, pollBatchSize))) {
+      if (!dispatch(jobId)) {
+        break;
+      }
+    }
+  }
+
+  /** Deletes finished jobs past the retention period. */
+  @Scheduled(fixedDelayString = "${payroll-job.purge-interval-ms:3600000}")
+  public void purgeFinished() {
+    payrollJobRepository.deleteFinishedBefore(Instant.now().minus(Duration.ofDays(retentionDays)));
+  }
+
+  private boolean dispatch(Long jobId) {
+    try {
+      payrollJobExecutor.execute(() -> run(jobId));
+      return true;
+    } catch (TaskRejectedException e) {
+      // left PENDING; the poller retries once a worker is free
+      return false;
+    }
+  }
+
+  private void run(Long jobId) {
+    // millisecond precision, so the value survives the round trip and identifies this run
+    Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    if (payrollJobRepository.start(jobId, PayrollJobStatus.PENDING, PayrollJobStatus.RUNNING,
+        startedAt) != 1) {
+      return;
+    }
+    PayrollJob job = payrollJobRepository.findById(jobId).orElse(null);
+    if (job == null) {
+      return;
+    }
+
+    PayrollJobStatus outcome;
+    Integer resultStatus = null;
+    String result = null;
+    String lastError = null;
+    runningHere.add(jobId);
+    try {
+      @SuppressWarnings("unchecked")
+      Map<String, Object> updates = objectMapper.readValue(job.getPayload(), Map.class);
+      Pair<HttpStatus, Object> response = job.getType() == PayrollJobType.GENERATE
+          ? payrollService.generatePayroll(updates)
+          : payrollService.deletePayroll(updates);
+      resultStatus = response.getFirst().value();
+      result = toJson(response.getSecond());
+      outcome = response.getFirst().is2xxSuccessful()
+          ? PayrollJobStatus.SUCCEEDED : PayrollJobStatus.FAILED;
+    } catch (Exception e) {
+      log.warn("Payroll job {} failed: {}", jobId, e.getMessage());
+      outcome = PayrollJobStatus.FAILED;
+      lastError = e.getMessage() == null ? "Unknown error"
+          : e.getMessage().substring(0, Math.min(e.getMessage().length(), 1000));
+    } finally {
+      runningHere.remove(jobId);
+    }
+    if (payrollJobRepository.finish(jobId, PayrollJobStatus.RUNNING, startedAt, outcome,
+        resultStatus, result, lastError, Instant.now()) != 1) {
+      log.warn("Payroll job {} was requeued while running; its result was not recorded", jobId);
+    }
+  }
+
+  private String toJson(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Cannot serialize payroll job data", e);
+    }
+  }
+
+  private Object fromJson(String json) {
+    if (json == null) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(json, Object.class);
+    } catch (JsonProcessingException e) {
+      return json;
+    }
+  }
+}
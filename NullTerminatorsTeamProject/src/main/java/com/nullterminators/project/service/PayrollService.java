@@ -1,25 +1,27 @@
 package com.nullterminators.project.service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nullterminators.project.config.ReplicaRead;
+import com.nullterminators.project.dto.ChangeStamp;
 import com.nullterminators.project.enums.PayrollRequestsStatus;
 import com.nullterminators.project.model.PayrollRequests;
 import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
 import com.nullterminators.project.repository.PayrollRequestsRepository;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.util.Pair;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for making REST API calls to the Payroll service.
@@ -27,60 +29,78 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class PayrollService {
 
-  private final RestTemplate restTemplate;
+  private final DownstreamClient downstreamClient;
   private final PayrollRequestsRepository payrollRequestsRepository;
   private final EmployeeProfileManagementRepository employeeProfileManagementRepository;
-
-  @Value("${service.auth.username}")
-  private String username;
-
-  @Value("${service.auth.password}")
-  private String password;
+  private final PayrollCache payrollCache;
+  private final ObjectMapper objectMapper;
 
   @Value("${service.url}")
-  private String BASE_URL;
+  private String baseUrl;
+
+  @Value("${payroll.cache.max-entry-bytes:262144}")
+  private int maxCachedBytes;
 
   @Autowired
-  public PayrollService(PayrollRequestsRepository payrollRequestsRepository,
-                        EmployeeProfileManagementRepository employeeProfileManagementRepository) {
-    HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
-    this.restTemplate  = new RestTemplate(requestFactory);
+  public PayrollService(DownstreamClient downstreamClient,
+                        PayrollRequestsRepository payrollRequestsRepository,
+                        EmployeeProfileManagementRepository employeeProfileManagementRepository,
+                        PayrollCache payrollCache,
+                        ObjectMapper objectMapper) {
+    this.downstreamClient = downstreamClient;
     this.payrollRequestsRepository = payrollRequestsRepository;
     this.employeeProfileManagementRepository = employeeProfileManagementRepository;
+    this.payrollCache = payrollCache;
+    this.objectMapper = objectMapper;
   }
 
   /**
-   * Creates HTTP headers with Basic Authentication.
+   * Send request to get Payroll by Employee ID.
+   *
+   * @param employeeId (Integer) : Employee ID
+   * @return Pair : Response from the service
    */
-  public HttpHeaders createHeaders() {
-    HttpHeaders headers = new HttpHeaders();
-    String auth = username + ":" + password;
-    String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-    headers.set("Authorization", "Basic " + encodedAuth);
-    headers.setContentType(MediaType.APPLICATION_JSON);
-    return headers;
+  public Pair<HttpStatus, Object> getPayrollByEmployeeId(Integer employeeId) {
+    return payrollCache.get(employeeId, () -> fetchPayrollByEmployeeId(employeeId));
   }
 
   /**
-   * Send request to get Payroll by Employee ID.
+   * Checks whether the payroll of an employee can be answered from the cache.
    *
    * @param employeeId (Integer) : Employee ID
-   * @return Pair : Response from the service
+   * @return true if the payroll is cached
    */
-  public Pair<HttpStatus, Object> getPayrollByEmployeeId(Integer employeeId) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<String> entity = new HttpEntity<>(headers);
-    try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId,
-              HttpMethod.GET, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-        return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+  public boolean isPayrollCached(Integer employeeId) {
+    return payrollCache.getIfPresent(employeeId) != null;
+  }
+
+  /**
+   * Streams the payroll of an employee from the payroll service straight to the caller. Bodies up
+   * to payroll.cache.max-entry-bytes are also captured and put in the payroll cache.
+   *
+   * @param employeeId (Integer) : Employee ID
+   * @param response : Response to write the payroll to
+   */
+  public void streamPayrollByEmployeeId(Integer employeeId, HttpServletResponse response) {
+    long seen = payrollCache.generation();
+    CappedByteArrayOutputStream captured = new CappedByteArrayOutputStream(maxCachedBytes);
+    HttpStatusCode status = downstreamClient.stream(HttpMethod.GET, baseUrl,
+        "/payroll/{employeeId}", HttpHeaders.EMPTY, response, captured, employeeId);
+    if (status.is2xxSuccessful() && !captured.isOverflowed() && captured.size() > 0) {
+      try {
+        payrollCache.put(employeeId, seen, Pair.of(HttpStatus.valueOf(status.value()),
+            objectMapper.readValue(captured.toByteArray(), Object.class)));
+      } catch (IOException e) {
+        // not JSON we can decode; the payroll is simply not cached
+      }
     }
   }
 
+  private Pair<HttpStatus, Object> fetchPayrollByEmployeeId(Integer employeeId) {
+    return downstreamClient.call(HttpMethod.GET, baseUrl,
+        "/payroll/{employeeId}", null, employeeId);
+  }
+
   /**
    * Send request to mark a Payroll as paid.
    *
@@ -89,16 +109,11 @@ public class PayrollService {
    * @return Pair : Response from the service
    */
   public Pair<HttpStatus, Object> markAsPaid(Integer employeeId, Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-              + "/markPaid", HttpMethod.PATCH, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.PATCH, baseUrl,
+          "/payroll/{employeeId}/markPaid", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -111,16 +126,11 @@ public class PayrollService {
    */
   public Pair<HttpStatus, Object> markAsUnpaid(Integer employeeId,
                                                Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-              + "/markUnpaid", HttpMethod.PATCH, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.PATCH, baseUrl,
+          "/payroll/{employeeId}/markUnpaid", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -133,16 +143,11 @@ public class PayrollService {
    */
   public Pair<HttpStatus, Object> createPayrollByEmployeeId(Integer employeeId,
                                                             Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-                      + "/addPayroll", HttpMethod.POST, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.POST, baseUrl,
+          "/payroll/{employeeId}/addPayroll", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -155,16 +160,11 @@ public class PayrollService {
    */
   public Pair<HttpStatus, Object>  deletePayrollByEmployeeId(Integer employeeId,
                                                              Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-                      + "/deletePayroll", HttpMethod.DELETE, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.DELETE, baseUrl,
+          "/payroll/{employeeId}/deletePayroll", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -176,16 +176,11 @@ public class PayrollService {
    * @return Pair : Response from the service
    */
   public Pair<HttpStatus, Object> adjustSalary(Integer employeeId, Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-                      + "/adjustSalary", HttpMethod.PATCH, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.PATCH, baseUrl,
+          "/payroll/{employeeId}/adjustSalary", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -197,16 +192,11 @@ public class PayrollService {
    * @return Pair : Response from the service
    */
   public Pair<HttpStatus, Object> adjustDay(Integer employeeId, Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/" + employeeId
-              + "/adjustDay", HttpMethod.PATCH, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.PATCH, baseUrl,
+          "/payroll/{employeeId}/adjustDay", updates, employeeId);
+    } finally {
+      payrollCache.invalidate(employeeId);
     }
   }
 
@@ -217,16 +207,11 @@ public class PayrollService {
    * @return Pair : Response from the service
    */
   public Pair<HttpStatus, Object> generatePayroll(Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/generatePayroll",
-              HttpMethod.POST, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.POST, baseUrl,
+          "/payroll/generatePayroll", updates);
+    } finally {
+      payrollCache.invalidateAll();
     }
   }
 
@@ -237,16 +222,11 @@ public class PayrollService {
    * @return Pair : Response from the service
    */
   public Pair<HttpStatus, Object> deletePayroll(Map<String, Object> updates) {
-    HttpHeaders headers = createHeaders();
-    HttpEntity<Map<String, Object>> entity = new HttpEntity<>(updates, headers);
     try {
-      ResponseEntity<Object> response = restTemplate.exchange(BASE_URL + "/payroll/deletePayroll",
-              HttpMethod.DELETE, entity, Object.class);
-      return Pair.of((HttpStatus) response.getStatusCode(), response.getBody());
-    } catch (HttpClientErrorException e) {
-      return Pair.of((HttpStatus) e.getStatusCode(), e.getResponseBodyAs(Object.class));
-    } catch (Exception e) {
-      return Pair.of(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+      return downstreamClient.call(HttpMethod.DELETE, baseUrl,
+          "/payroll/deletePayroll", updates);
+    } finally {
+      payrollCache.invalidateAll();
     }
   }
 
@@ -280,6 +260,7 @@ public class PayrollService {
       payrollRequestsRepository.save(payrollRequests);
     } catch (Exception e) {
       System.out.println(e.getMessage());
+      return PayrollRequestsStatus.ERROR;
     }
     return PayrollRequestsStatus.SUCCESS;
   }
@@ -314,6 +295,20 @@ public class PayrollService {
     }
   }
 
+  /**
+   * Returns the change stamp of an employee's payroll requests without loading them.
+   *
+   * @param employeeId the employee ID
+   * @return the change stamp
+   */
+  @Transactional(readOnly = true)
+  @ReplicaRead
+  public ChangeStamp getRequestsStamp(Integer employeeId) {
+    return payrollRequestsRepository.findChangeStampByEmpId(employeeId);
+  }
+
+  @Transactional(readOnly = true)
+  @ReplicaRead
   public Pair<PayrollRequestsStatus, List<Map<String, Object>>> getRequests(Integer employeeId) {
     List<Map<String, Object>> returnValue = new ArrayList<>();
 
@@ -348,6 +343,8 @@ public class PayrollService {
     }
   }
 
+  @Transactional(readOnly = true)
+  @ReplicaRead
   public Pair<PayrollRequestsStatus, List<Map<String, Object>>> getPendingRequests() {
     List<Map<String, Object>> returnValue = new ArrayList<>();
 
@@ -401,4 +398,34 @@ public class PayrollService {
   }
 
 
+
+  /** Captures written bytes up to a limit and then stops, remembering that it overflowed. */
+  private static class CappedByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private final int limit;
+    private boolean overflowed;
+
+    CappedByteArrayOutputStream(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      if (overflowed || count + len > limit) {
+        overflowed = true;
+        reset();
+        return;
+      }
+      super.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    boolean isOverflowed() {
+      return overflowed;
+    }
+  }
 }
@@ -1,23 +1,30 @@
 package com.nullterminators.project.service;
 
-
+import com.nullterminators.project.dto.TimeOff;
+import com.nullterminators.project.dto.TimeOffRequest;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Service for managing time-off requests, validations, and authorization checks.
@@ -25,17 +32,30 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class TimeOffClientService {
 
-    private static final String BASE_URL = "http://localhost:8080/timeoff";
-    private final RestTemplate restTemplate;
+    private final DownstreamClient downstreamClient;
     private final EmployeeHierarchyService hierarchyService;
-    @Value("${service.auth.username}")
-    private String username;
-    @Value("${service.auth.password}")
-    private String password;
-
-    public TimeOffClientService(RestTemplate restTemplate, EmployeeHierarchyService hierarchyService) {
-        this.restTemplate = restTemplate;
+    private final TimeOffStore timeOffStore;
+    private final Executor ioExecutor;
+    private final Executor syncExecutor;
+    private final TimeOffPolicy timeOffPolicy;
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    @Value("${service.timeoff.url:http://localhost:8080/timeoff}")
+    private String baseUrl;
+    @Value("${timeoff.sync.interval-ms:60000}")
+    private long syncIntervalMs;
+    @Value("${timeoff.team.max-range-days:366}")
+    private int maxTeamRangeDays;
+
+    public TimeOffClientService(DownstreamClient downstreamClient, EmployeeHierarchyService hierarchyService,
+                                TimeOffStore timeOffStore, @Qualifier("ioExecutor") Executor ioExecutor,
+                                @Qualifier("timeOffSyncExecutor") Executor syncExecutor,
+                                TimeOffPolicy timeOffPolicy) {
+        this.downstreamClient = downstreamClient;
         this.hierarchyService = hierarchyService;
+        this.timeOffStore = timeOffStore;
+        this.ioExecutor = ioExecutor;
+        this.syncExecutor = syncExecutor;
+        this.timeOffPolicy = timeOffPolicy;
     }
 
     /**
@@ -45,30 +65,17 @@ public class TimeOffClientService {
      * @param requestedEmployeeId the ID of the employee whose records are requested
      * @return a list of time-off records
      */
-    @Cacheable(value = "timeOffs", key = "#requestedEmployeeId")
-    public List<Object> getTimeOffByEmployeeId(Integer requestorEmployeeId, Integer requestedEmployeeId) {
-        Long superVisorEmployeeId = null;
-        try {
-            superVisorEmployeeId = hierarchyService.getSupervisor(requestorEmployeeId.longValue());
-        } catch (Exception ignored) {
-
-        }
+    public List<TimeOff> getTimeOffByEmployeeId(Integer requestorEmployeeId, Integer requestedEmployeeId) {
+        // the supervisor check and the time-off fetch do not depend on each other, so run them together
+        CompletableFuture<Long> supervisorCall = supervisorOf(requestorEmployeeId);
+        CompletableFuture<TimeOffIntervalIndex> timeOffsCall = loadTimeOffs(requestedEmployeeId);
 
+        Long superVisorEmployeeId = EmployeeHierarchyService.join(supervisorCall);
         if (superVisorEmployeeId != null && !superVisorEmployeeId.equals(requestedEmployeeId.longValue()) && !requestedEmployeeId.equals(requestorEmployeeId)) {
             throw new IllegalArgumentException("Only the employee or their supervisor can view this information.");
         }
 
-        HttpHeaders headers = createHeaders();
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<Object[]> response = restTemplate.exchange(
-                BASE_URL + "/" + requestedEmployeeId,
-                HttpMethod.GET,
-                entity,
-                Object[].class
-        );
-
-        return response.getBody() != null ? Arrays.asList(response.getBody()) : List.of();
+        return EmployeeHierarchyService.join(timeOffsCall).all();
     }
 
     /**
@@ -80,85 +87,63 @@ public class TimeOffClientService {
      * @param endDate the end date of the range
      * @return a list of time-off records within the specified range
      */
-    @Cacheable(value = "timeOffsInRange", key = "#requestedEmployeeId + '-' + #startDate + '-' + #endDate")
-    public List<Object> getTimeOffInRange(Integer requestorEmployeeId, Integer requestedEmployeeId, String startDate, String endDate) {
-        if (isValidDateFormat(startDate) || isValidDateFormat(endDate)) {
+    public List<TimeOff> getTimeOffInRange(Integer requestorEmployeeId, Integer requestedEmployeeId, String startDate, String endDate) {
+        LocalDate start = TimeOffPolicy.parseDate(startDate);
+        LocalDate end = TimeOffPolicy.parseDate(endDate);
+        if (start == null || end == null) {
             throw new IllegalArgumentException("Invalid date format. Use 'yyyy-MM-dd'.");
         }
 
-        Long superVisorEmployeeId = null;
-        try {
-            superVisorEmployeeId = hierarchyService.getSupervisor(requestorEmployeeId.longValue());
-        } catch (Exception ignored) {
-
-        }
+        CompletableFuture<Long> supervisorCall = supervisorOf(requestorEmployeeId);
+        CompletableFuture<TimeOffIntervalIndex> timeOffsCall = loadTimeOffs(requestedEmployeeId);
 
+        Long superVisorEmployeeId = EmployeeHierarchyService.join(supervisorCall);
         if (superVisorEmployeeId != null && !superVisorEmployeeId.equals(requestedEmployeeId.longValue()) && !requestedEmployeeId.equals(requestorEmployeeId)) {
             throw new IllegalArgumentException("Only the employee or their supervisor can view this information.");
         }
 
-        HttpHeaders headers = createHeaders();
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<Object[]> response = restTemplate.exchange(
-                BASE_URL + "/" + requestedEmployeeId + "/range?startDate=" + startDate + "&endDate=" + endDate,
-                HttpMethod.GET,
-                entity,
-                Object[].class
-        );
-
-        return response.getBody() != null ? Arrays.asList(response.getBody()) : List.of();
+        return EmployeeHierarchyService.join(timeOffsCall).overlapping(start, end);
     }
 
 
     /**
-     * Creates a new time-off request after validation.
+     * Creates a new time-off request after validation. The request is checked against the local
+     * policy first, so invalid requests never reach the hierarchy or time-off services.
      *
-     * @param timeOffRequest a map containing the time-off details
+     * @param timeOffRequest the time-off details
      * @return the created time-off object
      */
-    public Object createTimeOffRequest(Map<String, Object> timeOffRequest) {
-        try {
-            Long employeeId = hierarchyService.getSupervisor(((Number) timeOffRequest.get("employeeId")).longValue());
-            timeOffRequest.put("approverId", employeeId);
-        } catch (Exception e) {
-            timeOffRequest.put("approverId", null);
+    public TimeOff createTimeOffRequest(TimeOffRequest timeOffRequest) {
+        String error = timeOffPolicy.validate(timeOffRequest, LocalDate.now());
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
 
-        List<String> validLeaveTypes = Arrays.asList("CASUAL", "SICK", "HOLIDAY", "MATERNITY", "PATERNITY");
-        if (!validLeaveTypes.contains(timeOffRequest.get("leaveType").toString())) {
-            throw new IllegalArgumentException("Invalid leave type.");
-        }
-
-        LocalDate startDate = LocalDate.parse((String) timeOffRequest.get("startDate"));
-        LocalDate endDate = LocalDate.parse((String) timeOffRequest.get("endDate"));
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date must be before or the same as end date.");
-        }
-
-        if (startDate.isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Start date cannot be in the past.");
+        Integer employeeId = timeOffRequest.getEmployeeId();
+        Long approverId;
+        try {
+            approverId = hierarchyService.getSupervisor(employeeId.longValue());
+        } catch (Exception e) {
+            approverId = null;
         }
 
-        long leaveDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
-
-        if ("CASUAL".equals(timeOffRequest.get("leaveType").toString()) && leaveDays > 5) {
-            throw new IllegalArgumentException("Casual leave cannot exceed 5 days.");
+        Map<String, Object> body = new LinkedHashMap<>(timeOffRequest.getAdditionalFields());
+        body.put("employeeId", employeeId);
+        body.put("leaveType", timeOffRequest.getLeaveType());
+        body.put("startDate", timeOffRequest.getStartDate());
+        body.put("endDate", timeOffRequest.getEndDate());
+        body.put("approverId", approverId);
+
+        ResponseEntity<TimeOff> response =
+                downstreamClient.exchange(HttpMethod.POST, baseUrl, "/create", body, TimeOff.class);
+
+        TimeOff created = response.getBody();
+        if (created != null) {
+            timeOffStore.put(employeeId, created);
+        } else {
+            timeOffStore.invalidate(employeeId);
         }
-
-        HttpHeaders headers = createHeaders();
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(timeOffRequest, headers);
-
-        ResponseEntity<Object> response =
-                restTemplate.exchange(
-                        BASE_URL + "/create",
-                        HttpMethod.POST,
-                        entity,
-                        Object.class
-                );
-
-        return response.getBody();
+        return created;
     }
 
 
@@ -183,45 +168,198 @@ public class TimeOffClientService {
             throw new IllegalArgumentException("Only the employee's supervisor can approve/reject the timeoff request.");
         }
 
-        HttpHeaders headers = createHeaders();
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-
-        ResponseEntity<Void> response = restTemplate.exchange(
-                BASE_URL + "/" + requestedEmployeeId + "/" + timeOffId + "/update-status?action=" + action,
+        ResponseEntity<Void> response = downstreamClient.exchange(
                 HttpMethod.PUT,
-                entity,
-                Void.class
+                baseUrl,
+                "/{employeeId}/{timeOffId}/update-status?action={action}",
+                null,
+                Void.class,
+                requestedEmployeeId, timeOffId, action
         );
 
+        // the service does not echo the new status, so reload this employee on the next read
+        timeOffStore.invalidate(requestedEmployeeId);
         return response.getStatusCode() == HttpStatus.OK;
     }
 
     /**
-     * Creates HTTP headers for authentication and content type.
+     * Builds a day-by-employee availability matrix for everyone below a manager. The subtree is
+     * resolved once, time-offs that are not materialized locally are fetched concurrently, and
+     * each employee's days off are folded into a bitmap over the requested range. Only the manager
+     * or one of their supervisors may view a team.
      *
-     * @return HttpHeaders object with authentication and content type
+     * @param requestorEmployeeId the ID of the employee making the request
+     * @param managerId the ID of the manager whose team is requested
+     * @param startDate the first day of the range (in yyyy-MM-dd format)
+     * @param endDate the last day of the range (in yyyy-MM-dd format)
+     * @return the range, the team members and, per member, one character per day ('1' = off)
+     * @throws AccessDeniedException if the requestor is neither the manager nor above them
      */
-    private HttpHeaders createHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        String auth = username + ":" + password;
-        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
-        headers.set("Authorization", "Basic " + encodedAuth);
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        return headers;
+    public Map<String, Object> getTeamAvailability(Integer requestorEmployeeId, Integer managerId,
+                                                   String startDate, String endDate) {
+        LocalDate start = TimeOffPolicy.parseDate(startDate);
+        LocalDate end = TimeOffPolicy.parseDate(endDate);
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Invalid date format. Use 'yyyy-MM-dd'.");
+        }
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must be before or the same as end date.");
+        }
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        if (days > maxTeamRangeDays) {
+            throw new IllegalArgumentException("Date range cannot exceed " + maxTeamRangeDays + " days.");
+        }
+
+        if (!isSelfOrSupervisor(requestorEmployeeId, managerId)) {
+            throw new AccessDeniedException("Only the manager or their supervisors can view this team.");
+        }
+
+        List<Long> team = hierarchyService.getSubtreeEmployeeIds(managerId.longValue());
+        List<CompletableFuture<TimeOffIntervalIndex>> indexes = new ArrayList<>(team.size());
+        for (Long memberId : team) {
+            indexes.add(loadTimeOffs(memberId.intValue()));
+        }
+
+        List<String> matrix = new ArrayList<>(team.size());
+        int[] offPerDay = new int[days];
+        for (CompletableFuture<TimeOffIntervalIndex> index : indexes) {
+            BitSet off = new BitSet(days);
+            for (TimeOff timeOff : EmployeeHierarchyService.join(index).overlapping(start, end)) {
+                if (!countsAsAbsence(timeOff)) {
+                    continue;
+                }
+                int from = (int) Math.max(0, ChronoUnit.DAYS.between(start, timeOff.getStartDate()));
+                int to = (int) Math.min(days - 1, ChronoUnit.DAYS.between(start, timeOff.getEndDate()));
+                off.set(from, to + 1);
+            }
+            char[] row = new char[days];
+            for (int day = 0; day < days; day++) {
+                boolean isOff = off.get(day);
+                row[day] = isOff ? '1' : '0';
+                if (isOff) {
+                    offPerDay[day]++;
+                }
+            }
+            matrix.add(new String(row));
+        }
+
+        Map<String, Object> availability = new LinkedHashMap<>();
+        availability.put("managerId", managerId);
+        availability.put("startDate", start);
+        availability.put("endDate", end);
+        availability.put("employeeIds", team);
+        availability.put("daysOff", matrix);
+        availability.put("offPerDay", offPerDay);
+        return availability;
     }
 
     /**
-     * Validates the format of a date string.
+     * Checks whether an employee is the given manager or somewhere above them in the hierarchy.
      *
-     * @param date the date string to validate
-     * @return true if the format is invalid, false otherwise
+     * @param requestorEmployeeId the ID of the employee making the request
+     * @param managerId the ID of the manager
+     * @return true if the requestor is the manager or one of their supervisors
+     */
+    private boolean isSelfOrSupervisor(Integer requestorEmployeeId, Integer managerId) {
+        Long requestor = requestorEmployeeId.longValue();
+        Set<Long> seen = new HashSet<>();
+        for (Long current = managerId.longValue(); current != null && seen.add(current);
+                current = hierarchyService.getSupervisor(current)) {
+            if (current.equals(requestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Refreshes the materialized time-offs of employees that have not been synced recently, so
+     * changes made outside this client become visible. The fetches run on their own small pool; what
+     * does not fit its queue waits for the next run, and a run is skipped while the previous one is
+     * still in progress.
      */
-    private boolean isValidDateFormat(String date) {
+    @Scheduled(fixedDelayString = "${timeoff.sync.interval-ms:60000}")
+    public void syncTimeOffs() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        List<CompletableFuture<Void>> refreshes = new ArrayList<>();
         try {
-            LocalDate.parse(date);
-            return false;
-        } catch (DateTimeParseException e) {
-            return true;
+            for (Integer employeeId : timeOffStore.staleEmployees(Duration.ofMillis(syncIntervalMs))) {
+                refreshes.add(CompletableFuture.runAsync(() -> refreshTimeOffs(employeeId), syncExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            // the sync pool is full; whatever was not dispatched is still stale on the next run
+        } finally {
+            CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, e) -> syncing.set(false));
+        }
+    }
+
+    private void refreshTimeOffs(Integer employeeId) {
+        long seen = timeOffStore.generation();
+        try {
+            timeOffStore.refresh(employeeId, seen, fetchTimeOffs(employeeId));
+        } catch (Exception e) {
+            timeOffStore.invalidate(employeeId);
+        }
+    }
+
+    /**
+     * Fetches every time-off of an employee from the time-off service.
+     *
+     * @param employeeId the ID of the employee
+     * @return the employee's time-offs
+     */
+    private List<TimeOff> fetchTimeOffs(Integer employeeId) {
+        ResponseEntity<TimeOff[]> response = downstreamClient.exchange(
+                HttpMethod.GET,
+                baseUrl,
+                "/{employeeId}",
+                null,
+                TimeOff[].class,
+                employeeId
+        );
+
+        return response.getBody() != null ? Arrays.asList(response.getBody()) : List.of();
+    }
+
+    /**
+     * Looks up the supervisor of an employee on the I/O executor. Lookup failures are treated as
+     * the employee having no supervisor.
+     *
+     * @param employeeId the ID of the employee
+     * @return a future completing with the supervisor ID, or null
+     */
+    private CompletableFuture<Long> supervisorOf(Integer employeeId) {
+        return hierarchyService.getSupervisorAsync(employeeId.longValue()).exceptionally(e -> null);
+    }
+
+    /**
+     * Returns the time-off index of an employee, straight from the store if it is materialized and
+     * otherwise fetched on the I/O executor.
+     *
+     * @param employeeId the ID of the employee
+     * @return a future completing with the employee's time-off index
+     */
+    private CompletableFuture<TimeOffIntervalIndex> loadTimeOffs(Integer employeeId) {
+        TimeOffIntervalIndex cached = timeOffStore.peek(employeeId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
+        return CompletableFuture.supplyAsync(() -> timeOffStore.get(employeeId, this::fetchTimeOffs), ioExecutor);
+    }
+
+    /**
+     * Checks whether a time-off takes the employee away, i.e. it was not rejected or cancelled.
+     *
+     * @param timeOff the time-off to check
+     * @return true if the days should be shown as unavailable
+     */
+    private boolean countsAsAbsence(TimeOff timeOff) {
+        String status = timeOff.getStatus();
+        return status == null
+                || !(status.equalsIgnoreCase("REJECTED") || status.equalsIgnoreCase("CANCELLED")
+                || status.equalsIgnoreCase("CANCELED"));
     }
 }
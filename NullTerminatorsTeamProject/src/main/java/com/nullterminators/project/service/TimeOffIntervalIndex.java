@@ -0,0 +1,104 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.dto.TimeOff;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable interval index over the time-offs of one employee. Intervals are sorted by start date
+ * and carry a running maximum of end dates, so a range query binary-searches the last interval
+ * starting before the range ends and walks back only while an overlap is still possible.
+ */
+public final class TimeOffIntervalIndex {
+
+  private static final Comparator<TimeOff> BY_START =
+      Comparator.comparing(TimeOff::getStartDate).thenComparing(TimeOff::getEndDate);
+
+  private final List<TimeOff> all;
+  private final TimeOff[] sorted;
+  private final LocalDate[] maxEnd;
+
+  /**
+   * Builds an index over the given time-offs.
+   *
+   * @param timeOffs time-offs of one employee
+   */
+  public TimeOffIntervalIndex(List<TimeOff> timeOffs) {
+    this.all = List.copyOf(timeOffs);
+    this.sorted = timeOffs.stream()
+        .filter(t -> t.getStartDate() != null && t.getEndDate() != null)
+        .sorted(BY_START)
+        .toArray(TimeOff[]::new);
+    this.maxEnd = new LocalDate[sorted.length];
+    LocalDate running = null;
+    for (int i = 0; i < sorted.length; i++) {
+      LocalDate end = sorted[i].getEndDate();
+      running = running == null || end.isAfter(running) ? end : running;
+      maxEnd[i] = running;
+    }
+  }
+
+  /**
+   * Returns every indexed time-off in the order it was supplied.
+   *
+   * @return all time-offs
+   */
+  public List<TimeOff> all() {
+    return all;
+  }
+
+  /**
+   * Returns the time-offs overlapping the inclusive range, ordered by start date.
+   *
+   * @param from first day of the range
+   * @param to last day of the range
+   * @return overlapping time-offs
+   */
+  public List<TimeOff> overlapping(LocalDate from, LocalDate to) {
+    int last = lastStartingOnOrBefore(to);
+    List<TimeOff> result = new ArrayList<>();
+    for (int i = last; i >= 0 && !maxEnd[i].isBefore(from); i--) {
+      if (!sorted[i].getEndDate().isBefore(from)) {
+        result.add(sorted[i]);
+      }
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  /**
+   * Returns a new index with the given time-off added, replacing any entry with the same id.
+   *
+   * @param timeOff time-off to add
+   * @return the updated index
+   */
+  public TimeOffIntervalIndex with(TimeOff timeOff) {
+    List<TimeOff> updated = new ArrayList<>(all.size() + 1);
+    for (TimeOff existing : all) {
+      if (timeOff.getId() == null || !timeOff.getId().equals(existing.getId())) {
+        updated.add(existing);
+      }
+    }
+    updated.add(timeOff);
+    return new TimeOffIntervalIndex(updated);
+  }
+
+  private int lastStartingOnOrBefore(LocalDate date) {
+    int low = 0;
+    int high = sorted.length - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid].getStartDate().isAfter(date)) {
+        high = mid - 1;
+      } else {
+        found = mid;
+        low = mid + 1;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,133 @@
+package com.nullterminators.project.service;
+
+import com.nullterminators.project.dto.TimeOffRequest;
+import com.nullterminators.project.enums.LeaveType;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local rules for new time-off requests: which leave types may be requested and how many days
+ * each type allows. Everything here is checked before the time-off service is called.
+ */
+@Component
+public class TimeOffPolicy {
+
+  private final Set<LeaveType> allowedTypes;
+  private final Map<LeaveType, Integer> maxDays;
+
+  /**
+   * Creates the policy from configuration.
+   *
+   * @param allowedTypes comma separated leave types that may be requested
+   * @param maxDays comma separated TYPE:days limits, e.g. {@code CASUAL:5}
+   */
+  public TimeOffPolicy(
+      @Value("${timeoff.policy.allowed-types:CASUAL,SICK,HOLIDAY,MATERNITY,PATERNITY}") String allowedTypes,
+      @Value("${timeoff.policy.max-days:CASUAL:5}") String maxDays) {
+    this.allowedTypes = EnumSet.noneOf(LeaveType.class);
+    for (String name : allowedTypes.split(",")) {
+      this.allowedTypes.add(requireType(name.trim()));
+    }
+    this.maxDays = new EnumMap<>(LeaveType.class);
+    for (String entry : maxDays.split(",")) {
+      if (entry.isBlank()) {
+        continue;
+      }
+      int separator = entry.indexOf(':');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid time-off limit '" + entry + "', expected TYPE:days");
+      }
+      this.maxDays.put(requireType(entry.substring(0, separator).trim()),
+          Integer.parseInt(entry.substring(separator + 1).trim()));
+    }
+  }
+
+  /**
+   * Checks a request against the policy.
+   *
+   * @param request the request to check
+   * @param today the current date
+   * @return a description of the first problem found, or null if the request is valid
+   */
+  public String validate(TimeOffRequest request, LocalDate today) {
+    if (request.getEmployeeId() == null) {
+      return "Employee ID is required.";
+    }
+    LeaveType type = LeaveType.fromName(request.getLeaveType());
+    if (type == null || !allowedTypes.contains(type)) {
+      return "Invalid leave type.";
+    }
+    LocalDate startDate = parseDate(request.getStartDate());
+    LocalDate endDate = parseDate(request.getEndDate());
+    if (startDate == null || endDate == null) {
+      return "Invalid date format. Use 'yyyy-MM-dd'.";
+    }
+    if (startDate.isAfter(endDate)) {
+      return "Start date must be before or the same as end date.";
+    }
+    if (startDate.isBefore(today)) {
+      return "Start date cannot be in the past.";
+    }
+    Integer limit = maxDays.get(type);
+    if (limit != null && ChronoUnit.DAYS.between(startDate, endDate) + 1 > limit) {
+      return capitalize(type) + " leave cannot exceed " + limit + " days.";
+    }
+    return null;
+  }
+
+  /**
+   * Parses a yyyy-MM-dd date without using exceptions for malformed input.
+   *
+   * @param value the text to parse, may be null
+   * @return the date, or null if the text is not a valid date
+   */
+  public static LocalDate parseDate(String value) {
+    if (value == null || value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+      return null;
+    }
+    int year = digits(value, 0, 4);
+    int month = digits(value, 5, 7);
+    int day = digits(value, 8, 10);
+    if (year < 0 || month < 1 || month > 12 || day < 1) {
+      return null;
+    }
+    int monthLength = switch (month) {
+      case 2 -> Year.isLeap(year) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+    return day > monthLength ? null : LocalDate.of(year, month, day);
+  }
+
+  private static int digits(String value, int from, int to) {
+    int result = 0;
+    for (int i = from; i < to; i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+
+  private static LeaveType requireType(String name) {
+    LeaveType type = LeaveType.fromName(name);
+    if (type == null) {
+      throw new IllegalArgumentException("Unknown leave type '" + name + "' in time-off policy");
+    }
+    return type;
+  }
+
+  private static String capitalize(LeaveType type) {
+    String name = type.name();
+    return name.charAt(0) + name.substring(1).toLowerCase();
+  }
+}
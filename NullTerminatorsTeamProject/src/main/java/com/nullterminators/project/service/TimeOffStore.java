@@ -0,0 +1,160 @@
+package com.nullterminators.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nullterminators.project.dto.TimeOff;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local read model of time-off records, one {@link TimeOffIntervalIndex} per employee. Employees
+ * are loaded from the time-off service on first access, kept current by write-through from the
+ * client's own writes and refreshed periodically to pick up changes made elsewhere. Only reads
+ * keep an employee materialized: one that has not been read for the idle time is dropped, so the
+ * periodic refresh covers just the employees somebody is looking at.
+ */
+@Component
+public class TimeOffStore {
+
+  private final Cache<Integer, Snapshot> snapshots;
+
+  // bumped by every write so a load that raced it does not store what it saw
+  private final AtomicLong generation = new AtomicLong();
+
+  public TimeOffStore(@Value("${timeoff.store.max-employees:10000}") long maxEmployees,
+      @Value("${timeoff.store.idle-ms:600000}") long idleMs,
+      MeterRegistry meterRegistry) {
+    this.snapshots = Caffeine.newBuilder()
+        .maximumSize(maxEmployees)
+        .expireAfter(new ExpireWhenIdle(Duration.ofMillis(idleMs).toNanos()))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "timeoff");
+  }
+
+  /**
+   * Returns the index of an employee, loading it if it is not materialized yet.
+   *
+   * @param employeeId employee id
+   * @param loader fetches the employee's time-offs from the time-off service
+   * @return the employee's time-off index
+   */
+  public TimeOffIntervalIndex get(Integer employeeId, Function<Integer, List<TimeOff>> loader) {
+    Snapshot snapshot = snapshots.getIfPresent(employeeId);
+    if (snapshot != null) {
+      return snapshot.index();
+    }
+    long seen = generation.get();
+    TimeOffIntervalIndex index = new TimeOffIntervalIndex(loader.apply(employeeId));
+    snapshots.asMap().compute(employeeId, (id, current) ->
+        generation.get() == seen ? new Snapshot(index, Instant.now()) : current);
+    return index;
+  }
+
+  /**
+   * Returns the index of an employee if it is already materialized.
+   *
+   * @param employeeId employee id
+   * @return the index, or null if the employee has not been loaded
+   */
+  public TimeOffIntervalIndex peek(Integer employeeId) {
+    Snapshot snapshot = snapshots.getIfPresent(employeeId);
+    return snapshot == null ? null : snapshot.index();
+  }
+
+  /**
+   * Returns the current write generation. Take it before fetching time-offs that are to be passed
+   * to {@link #refresh}.
+   *
+   * @return the generation
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Replaces what is known about a materialized employee with a fresh copy from the time-off
+   * service, unless the employee was dropped or a write happened since the fetch started.
+   *
+   * @param employeeId employee id
+   * @param seenGeneration {@link #generation()} taken before the fetch
+   * @param timeOffs the employee's time-offs
+   */
+  public void refresh(Integer employeeId, long seenGeneration, List<TimeOff> timeOffs) {
+    TimeOffIntervalIndex index = new TimeOffIntervalIndex(timeOffs);
+    snapshots.asMap().computeIfPresent(employeeId, (id, current) ->
+        generation.get() == seenGeneration ? new Snapshot(index, Instant.now()) : current);
+  }
+
+  /**
+   * Applies a time-off written through this client. Employees that are not materialized are left
+   * alone; they are loaded in full on their next read.
+   *
+   * @param employeeId employee id
+   * @param timeOff the created or updated time-off
+   */
+  public void put(Integer employeeId, TimeOff timeOff) {
+    generation.incrementAndGet();
+    snapshots.asMap().computeIfPresent(employeeId,
+        (id, snapshot) -> new Snapshot(snapshot.index().with(timeOff), snapshot.syncedAt()));
+  }
+
+  /**
+   * Drops an employee so the next read reloads it.
+   *
+   * @param employeeId employee id
+   */
+  public void invalidate(Integer employeeId) {
+    generation.incrementAndGet();
+    snapshots.invalidate(employeeId);
+  }
+
+  /**
+   * Lists employees whose data was last synced longer ago than the given age.
+   *
+   * @param maxAge maximum age of a snapshot
+   * @return ids of the employees to resync
+   */
+  public List<Integer> staleEmployees(Duration maxAge) {
+    Instant cutoff = Instant.now().minus(maxAge);
+    List<Integer> stale = new ArrayList<>();
+    snapshots.asMap().forEach((id, snapshot) -> {
+      if (snapshot.syncedAt().isBefore(cutoff)) {
+        stale.add(id);
+      }
+    });
+    return stale;
+  }
+
+  private record Snapshot(TimeOffIntervalIndex index, Instant syncedAt) {}
+
+  /** Expires a snapshot once it has not been read for the idle time; refreshes do not count. */
+  private record ExpireWhenIdle(long idleNanos) implements Expiry<Integer, Snapshot> {
+
+    @Override
+    public long expireAfterCreate(Integer key, Snapshot value, long currentTime) {
+      return idleNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Integer key, Snapshot value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(Integer key, Snapshot value, long currentTime,
+        long currentDuration) {
+      return idleNanos;
+    }
+  }
+}
@@ -15,6 +15,8 @@ import java.util.Optional;
 @Service
 public class UserLoginDetailsService implements UserDetailsService {
 
+    private static final BCryptPasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder();
+
     @Autowired
     private UserLoginDetailsRepository userLoginDetailsRepository;
 
@@ -34,18 +36,16 @@ public class UserLoginDetailsService implements UserDetailsService {
     }
 
     public String createUser(Integer empId, String username, String password, String designation) {
-        String role = switch (designation.toLowerCase()) {
-            case "it" -> "SUPERUSER";
-            case "doctor" -> "DOCTOR";
-            case "nurse" -> "NURSE";
-            default -> "OTHER";
-        };
+        return createUserWithEncodedPassword(empId, username, encodePassword(password), designation);
+    }
 
+    public String createUserWithEncodedPassword(Integer empId, String username, String encodedPassword,
+                                                String designation) {
         UserLoginDetails userLoginDetails = new UserLoginDetails();
         userLoginDetails.setEmployeeId(empId);
         userLoginDetails.setUsername(username);
-        userLoginDetails.setPassword(new BCryptPasswordEncoder().encode(password));
-        userLoginDetails.setRole(role);
+        userLoginDetails.setPassword(encodedPassword);
+        userLoginDetails.setRole(roleFor(designation));
         try{
             userLoginDetailsRepository.save(userLoginDetails);
             return "";
@@ -54,4 +54,30 @@ public class UserLoginDetailsService implements UserDetailsService {
             return e.getMessage();
         }
     }
+
+    /**
+     * Deletes a login, but only if it belongs to the given employee.
+     *
+     * @return true if a login was deleted
+     */
+    public boolean deleteLogin(String username, Integer employeeId) {
+        return userLoginDetailsRepository.deleteByUsernameAndEmployeeId(username, employeeId) > 0;
+    }
+
+    public Optional<UserLoginDetails> findByUsername(String username) {
+        return userLoginDetailsRepository.findByUsername(username);
+    }
+
+    public String encodePassword(String password) {
+        return PASSWORD_ENCODER.encode(password);
+    }
+
+    public static String roleFor(String designation) {
+        return switch (designation.toLowerCase()) {
+            case "it" -> "SUPERUSER";
+            case "doctor" -> "DOCTOR";
+            case "nurse" -> "NURSE";
+            default -> "OTHER";
+        };
+    }
 }
@@ -0,0 +1,99 @@
+CREATE TABLE IF NOT EXISTS designation_head_count (
+    designation VARCHAR(255) PRIMARY KEY,
+    total BIGINT NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS onboarding_job_id_seq;
+
+CREATE TABLE IF NOT EXISTS onboarding_job (
+    id BIGINT PRIMARY KEY,
+    idempotency_key VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    gender VARCHAR(255),
+    age INTEGER NOT NULL,
+    start_date DATE,
+    designation VARCHAR(255) NOT NULL,
+    email VARCHAR(255),
+    emergency_contact VARCHAR(255),
+    base_salary INTEGER NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255),
+    status VARCHAR(32) NOT NULL,
+    step VARCHAR(32) NOT NULL,
+    employee_id INTEGER,
+    attempts INTEGER NOT NULL,
+    last_error VARCHAR(1000),
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS onboarding_job_ready_idx ON onboarding_job (status, next_attempt_at);
+
+-- Optimistic locking, so a worker that lost its job to a requeue cannot overwrite the new owner
+ALTER TABLE onboarding_job ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Patient and record search: trigram similarity on names, prefix match on phone numbers and
+-- full-text search over prescription and notes (expression must match PatientRecordsRepository)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS patient_name_trgm_idx ON patient USING gin (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS patient_phone_number_prefix_idx ON patient (phone_number text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS patient_records_search_idx ON patient_records
+    USING gin (to_tsvector('english', coalesce(prescription, '') || ' ' || coalesce(notes, '')));
+
+-- Patient timeline: a patient's records in (date, id) order
+CREATE INDEX IF NOT EXISTS patient_records_patient_date_idx ON patient_records (patient_id, date, id);
+
+-- Optimistic locking versions, also summed into the ETags of record and request lists
+ALTER TABLE patient ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE patient_records ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE payroll_requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS payroll_requests_emp_id_idx ON payroll_requests (emp_id);
+
+-- Idempotency-Key claims and stored responses, keyed by user and key
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    record_key VARCHAR(512) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    response_status INTEGER,
+    response_content_type VARCHAR(255),
+    response_body BYTEA,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_record_created_at_idx ON idempotency_record (created_at);
+
+-- Identifies the request holding an IN_PROGRESS claim, so a timed-out owner cannot release or
+-- complete a claim another request has taken over
+ALTER TABLE idempotency_record ADD COLUMN IF NOT EXISTS claim_token VARCHAR(36);
+
+-- Company-wide payroll generation and deletion jobs; at most one active job per type and month
+CREATE SEQUENCE IF NOT EXISTS payroll_job_id_seq;
+
+CREATE TABLE IF NOT EXISTS payroll_job (
+    id BIGINT PRIMARY KEY,
+    type VARCHAR(16) NOT NULL,
+    month INTEGER NOT NULL,
+    year INTEGER NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    result_status INTEGER,
+    result TEXT,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    started_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS payroll_job_active_idx ON payroll_job (type, month, year)
+    WHERE status IN ('PENDING', 'RUNNING');
+
+CREATE INDEX IF NOT EXISTS payroll_job_status_idx ON payroll_job (status, id);
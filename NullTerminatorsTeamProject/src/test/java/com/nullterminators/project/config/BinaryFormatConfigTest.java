@@ -0,0 +1,72 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+class BinaryFormatConfigTest {
+
+  private static final Map<String, Object> RECORD =
+      Map.of("id", 7, "prescription", "Amoxicillin 500mg");
+
+  @RestController
+  static class RecordController {
+    @GetMapping("/record")
+    Map<String, Object> record() {
+      return RECORD;
+    }
+  }
+
+  private final MockMvc mockMvc = mockMvc();
+
+  private static MockMvc mockMvc() {
+    BinaryFormatConfig config = new BinaryFormatConfig();
+    // assembled the way Spring Boot combines converter beans with its defaults
+    HttpMessageConverters converters = new HttpMessageConverters(List.of(
+        config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+        config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder())));
+    return MockMvcBuilders.standaloneSetup(new RecordController())
+        .setMessageConverters(converters.getConverters().toArray(
+            HttpMessageConverter[]::new))
+        .build();
+  }
+
+  @Test
+  void returnsCborWhenAskedFor() throws Exception {
+    MvcResult result = mockMvc.perform(get("/record").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn();
+
+    Map<?, ?> decoded = new ObjectMapper(new CBORFactory())
+        .readValue(result.getResponse().getContentAsByteArray(), Map.class);
+    assertEquals(7, decoded.get("id"));
+    assertEquals("Amoxicillin 500mg", decoded.get("prescription"));
+  }
+
+  @Test
+  void keepsJsonForAnyAccept() throws Exception {
+    mockMvc.perform(get("/record").accept(MediaType.ALL))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.id").value(7))
+        .andExpect(jsonPath("$.prescription").value("Amoxicillin 500mg"));
+  }
+}
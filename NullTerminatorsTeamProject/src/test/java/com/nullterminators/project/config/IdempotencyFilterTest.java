@@ -0,0 +1,92 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.service.IdempotencyStore;
+import com.nullterminators.project.service.IdempotencyStore.StoredResponse;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class IdempotencyFilterTest {
+
+  private final IdempotencyStore store = mock(IdempotencyStore.class);
+  private final IdempotencyFilter filter = new IdempotencyFilter(store);
+  private final AtomicInteger executions = new AtomicInteger();
+
+  private MockHttpServletResponse post(String body, int status) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payroll/generatePayroll");
+    request.addHeader(IdempotencyFilter.HEADER, "key-1");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, (req, res) -> {
+      executions.incrementAndGet();
+      // the handler still sees the body that was read for hashing
+      assertEquals(body, new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+      ((HttpServletResponse) res).setStatus(status);
+      res.getWriter().write("{\"response\":\"done\"}");
+    });
+    return response;
+  }
+
+  @Test
+  void storesResponseOfFirstExecutionAndReplaysIt() throws Exception {
+    when(store.claim(anyString(), anyString(), anyString())).thenReturn(null);
+    MockHttpServletResponse first = post("{\"month\":1}", 200);
+    assertEquals(1, executions.get());
+    ArgumentCaptor<StoredResponse> stored = ArgumentCaptor.forClass(StoredResponse.class);
+    verify(store).complete(eq("anonymous:key-1"), anyString(), stored.capture());
+    assertEquals("{\"response\":\"done\"}", first.getContentAsString());
+
+    when(store.claim(anyString(), anyString(), anyString())).thenReturn(stored.getValue());
+    MockHttpServletResponse replay = post("{\"month\":1}", 200);
+    assertEquals(1, executions.get());
+    assertEquals(200, replay.getStatus());
+    assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals("{\"response\":\"done\"}", replay.getContentAsString());
+
+    MockHttpServletResponse mismatch = post("{\"month\":2}", 200);
+    assertEquals(1, executions.get());
+    assertEquals(422, mismatch.getStatus());
+  }
+
+  @Test
+  void rejectsRetryWhileInProgressAndReleasesServerErrors() throws Exception {
+    ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+    when(store.claim(anyString(), anyString(), token.capture())).thenReturn(null);
+    assertEquals(500, post("{}", 500).getStatus());
+    verify(store).release("anonymous:key-1", token.getValue());
+    verify(store, never()).complete(anyString(), anyString(), any());
+
+    when(store.claim(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+        new StoredResponse(invocation.getArgument(1), false, 0, null, null));
+    assertEquals(409, post("{}", 200).getStatus());
+  }
+
+  @Test
+  void bodyIsAvailableToAsyncReaders() throws Exception {
+    when(store.claim(anyString(), anyString(), anyString())).thenReturn(null);
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payroll/generatePayroll");
+    request.addHeader(IdempotencyFilter.HEADER, "key-1");
+    request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+    ReadListener listener = mock(ReadListener.class);
+
+    filter.doFilter(request, new MockHttpServletResponse(),
+        (req, res) -> req.getInputStream().setReadListener(listener));
+
+    verify(listener).onDataAvailable();
+    verify(listener).onAllDataRead();
+  }
+}
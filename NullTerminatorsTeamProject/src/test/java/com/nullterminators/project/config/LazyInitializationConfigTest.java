@@ -0,0 +1,20 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nullterminators.project.service.IdempotencyStore;
+import com.nullterminators.project.service.PayrollCache;
+import com.nullterminators.project.service.PayrollJobService;
+import org.junit.jupiter.api.Test;
+
+class LazyInitializationConfigTest {
+
+  @Test
+  void keepsOnlyBeansWithScheduledMethodsEager() {
+    assertTrue(LazyInitializationConfig.hasScheduledMethods(PayrollJobService.class));
+    assertTrue(LazyInitializationConfig.hasScheduledMethods(IdempotencyStore.class));
+    assertFalse(LazyInitializationConfig.hasScheduledMethods(PayrollCache.class));
+    assertFalse(LazyInitializationConfig.hasScheduledMethods(null));
+  }
+}
@@ -0,0 +1,41 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.nullterminators.project.dto.ChangeStamp;
+import com.nullterminators.project.dto.HierarchyEdge;
+import com.nullterminators.project.dto.TimeOff;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class NativeImageConfigTest {
+
+  @Test
+  void registersSecondLevelCacheProviderAndConfiguration() {
+    RuntimeHints hints = new RuntimeHints();
+    new NativeImageConfig.Hints().registerHints(hints, getClass().getClassLoader());
+
+    assertTrue(RuntimeHintsPredicates.resource().forResource("application.conf").test(hints));
+    assertTrue(RuntimeHintsPredicates.resource().forResource("reference.conf").test(hints));
+    assertTrue(RuntimeHintsPredicates.reflection().onType(CaffeineCachingProvider.class)
+        .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+    assertTrue(RuntimeHintsPredicates.reflection().onType(TimeOff.class)
+        .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+  }
+
+  @Test
+  void registersDtosForBinding() throws Exception {
+    RuntimeHints hints = new RuntimeHints();
+    new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(),
+        NativeImageConfig.class);
+
+    assertTrue(RuntimeHintsPredicates.reflection().onType(HierarchyEdge.class).test(hints));
+    assertTrue(RuntimeHintsPredicates.reflection()
+        .onConstructor(ChangeStamp.class.getDeclaredConstructor(Long.class, Long.class, Long.class))
+        .test(hints));
+  }
+}
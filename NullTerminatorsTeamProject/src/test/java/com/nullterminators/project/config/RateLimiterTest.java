@@ -0,0 +1,62 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+  private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+  private RateLimiter limiter(double requestsPerSecond, int burst) {
+    RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+    limit.setRequestsPerSecond(requestsPerSecond);
+    limit.setBurst(burst);
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.getGroups().put("payroll", limit);
+    properties.setIdleEvictionMs(60_000);
+    return new RateLimiter(properties, now::get);
+  }
+
+  @Test
+  void allowsBurstThenRefillsAtConfiguredRate() {
+    RateLimiter limiter = limiter(5, 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(0, limiter.tryAcquire("alice", "payroll"));
+    }
+    long wait = limiter.tryAcquire("alice", "payroll");
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(200), wait);
+
+    // other callers and unlimited groups are unaffected
+    assertEquals(0, limiter.tryAcquire("bob", "payroll"));
+    assertEquals(0, limiter.tryAcquire("alice", "client"));
+
+    now.addAndGet(wait);
+    assertEquals(0, limiter.tryAcquire("alice", "payroll"));
+    assertTrue(limiter.tryAcquire("alice", "payroll") > 0);
+  }
+
+  @Test
+  void evictsIdleBuckets() {
+    RateLimiter limiter = limiter(5, 10);
+    limiter.tryAcquire("alice", "payroll");
+    limiter.evictIdle();
+    assertEquals(1, limiter.size());
+
+    now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    limiter.evictIdle();
+    assertEquals(0, limiter.size());
+  }
+
+  @Test
+  void mapsPathsToGroups() {
+    assertEquals("client", RateLimitFilter.group("/client/timeoff/1/2"));
+    assertEquals("patient", RateLimitFilter.group("/patient"));
+    assertEquals("patient", RateLimitFilter.group("/patient/records/getAll"));
+    assertEquals("payroll", RateLimitFilter.group("/payroll/generatePayroll"));
+    assertEquals(null, RateLimitFilter.group("/actuator/health"));
+  }
+}
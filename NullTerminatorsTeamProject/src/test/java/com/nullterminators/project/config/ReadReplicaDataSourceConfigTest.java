@@ -0,0 +1,76 @@
+package com.nullterminators.project.config;
+
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReadReplicaDataSourceConfigTest {
+
+  private final ReadReplicaDataSourceConfig config = new ReadReplicaDataSourceConfig();
+  private final DataSource writer = dataSource();
+  private final DataSource replica = dataSource();
+  private final DataSource routing = config.dataSource(writer, replica);
+
+  private static DataSource dataSource() {
+    try {
+      DataSource dataSource = mock(DataSource.class);
+      Connection connection = mock(Connection.class);
+      when(dataSource.getConnection()).thenReturn(connection);
+      return dataSource;
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Object query() throws Exception {
+    try (Connection connection = routing.getConnection()) {
+      connection.createStatement();
+    }
+    return null;
+  }
+
+  @AfterEach
+  void clearTransaction() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  void readOnlyTransactionsOutsideReplicaReadsStayOnThePrimary() throws Exception {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    query();
+
+    verify(replica, never()).getConnection();
+  }
+
+  @Test
+  void replicaReadsInReadOnlyTransactionsGoToTheReplica() throws Throwable {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.proceed()).thenAnswer(invocation -> query());
+
+    config.replicaReadAspect().routeToReplica(joinPoint);
+
+    verify(replica, atLeastOnce()).getConnection();
+  }
+
+  @Test
+  void replicaReadsJoiningAWriteTransactionStayOnThePrimary() throws Throwable {
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.proceed()).thenAnswer(invocation -> query());
+
+    config.replicaReadAspect().routeToReplica(joinPoint);
+
+    verify(replica, never()).getConnection();
+    verify(writer, atLeastOnce()).getConnection();
+  }
+}
@@ -0,0 +1,52 @@
+package com.nullterminators.project.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class SqlStatementMetricsFilterTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private MockHttpServletResponse run(boolean exposeHeader, int statements)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patient/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    SqlStatementCounter counter = new SqlStatementCounter();
+    new SqlStatementMetricsFilter(registry, exposeHeader).doFilter(request, response,
+        (req, res) -> {
+          req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/patient/{id}");
+          for (int i = 0; i < statements; i++) {
+            counter.inspect("select 1");
+          }
+          res.getWriter().write("ok");
+          res.flushBuffer();
+          counter.inspect("select 1");
+        });
+    return response;
+  }
+
+  @Test
+  void countsStatementsAndExposesHeader() throws Exception {
+    MockHttpServletResponse response = run(true, 3);
+
+    // statements issued after the response was committed only reach the metric
+    assertEquals("3", response.getHeader(SqlStatementMetricsFilter.HEADER));
+    assertEquals("ok", response.getContentAsString());
+    assertEquals(4.0, registry.get("http.server.sql.statements")
+        .tag("uri", "/patient/{id}").summary().totalAmount());
+  }
+
+  @Test
+  void omitsHeaderUnlessEnabled() throws Exception {
+    MockHttpServletResponse response = run(false, 2);
+
+    assertNull(response.getHeader(SqlStatementMetricsFilter.HEADER));
+    assertEquals(3.0, registry.get("http.server.sql.statements").summary().totalAmount());
+  }
+}
@@ -0,0 +1,88 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nullterminators.project.model.EmployeeProfileManagement;
+import com.nullterminators.project.repository.EmployeeProfileManagementRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class DesignationIndexTest {
+
+  private final EmployeeProfileManagementRepository repository =
+      mock(EmployeeProfileManagementRepository.class);
+  private final DesignationIndex index = new DesignationIndex(repository);
+
+  private static EmployeeProfileManagement employee(int id, String designation) {
+    EmployeeProfileManagement employee = new EmployeeProfileManagement();
+    employee.setId(id);
+    employee.setDesignation(designation);
+    return employee;
+  }
+
+  @Test
+  void looksUpEmployeesAddedElsewhereOnMiss() {
+    when(repository.findAll()).thenReturn(List.of(employee(1, "Doctor")));
+    index.load();
+    when(repository.findById(2)).thenReturn(Optional.of(employee(2, "Doctor")));
+
+    assertTrue(index.isDoctor(1));
+    assertTrue(index.isDoctor(2));
+    assertTrue(index.isDoctor(2));
+    verify(repository, times(1)).findById(2);
+  }
+
+  @Test
+  void remembersUnknownEmployeesUntilReload() {
+    when(repository.findAll()).thenReturn(List.of());
+    index.load();
+    when(repository.findById(3)).thenReturn(Optional.empty());
+
+    assertFalse(index.isDoctor(3));
+    assertFalse(index.isDoctor(3));
+    verify(repository, times(1)).findById(3);
+
+    index.load();
+    assertFalse(index.isDoctor(3));
+    verify(repository, times(2)).findById(3);
+  }
+
+  @Test
+  void doesNotLookUpEmployeesWithAnotherDesignation() {
+    when(repository.findAll()).thenReturn(List.of(employee(4, "Nurse")));
+    index.load();
+
+    assertFalse(index.isDoctor(4));
+    verify(repository, never()).findById(4);
+  }
+
+  @Test
+  void keepsEmployeesAddedDuringReload() {
+    when(repository.findAll()).thenAnswer(invocation -> {
+      index.add(5, "Doctor");
+      return List.of();
+    });
+    index.load();
+
+    assertTrue(index.isDoctor(5));
+    verify(repository, never()).findById(5);
+  }
+
+  @Test
+  void reloadDropsEmployeesRemovedElsewhere() {
+    when(repository.findAll()).thenReturn(List.of(employee(1, "Doctor")));
+    index.load();
+    assertTrue(index.isDoctor(1));
+
+    when(repository.findAll()).thenReturn(List.of());
+    index.load();
+    assertFalse(index.isDoctor(1));
+  }
+}
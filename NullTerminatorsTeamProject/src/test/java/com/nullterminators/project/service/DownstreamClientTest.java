@@ -0,0 +1,88 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withResourceNotFound;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+class DownstreamClientTest {
+
+  @Test
+  void encodesReservedCharactersInVariables() {
+    assertEquals("http://svc/createNewEmployee?name=Ann%20%26%20Co&email=a%2Bb%3D1%40x.com",
+        DownstreamClient.uri("http://svc", "/createNewEmployee?name={name}&email={email}",
+            Map.of("name", "Ann & Co", "email", "a+b=1@x.com")).toString());
+    assertEquals("http://svc/7/3/update-status?action=approve",
+        DownstreamClient.uri("http://svc", "/{employeeId}/{timeOffId}/update-status?action={action}",
+            7, 3, "approve").toString());
+  }
+
+  @Test
+  void reusesHeadersUntilCredentialsChange() {
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("service.auth.username", "user")
+        .withProperty("service.auth.password", "secret");
+    DownstreamClient client =
+        new DownstreamClient(new RestTemplate(), environment, new SimpleMeterRegistry(), 4);
+
+    HttpHeaders headers = client.headers();
+    assertEquals("Basic dXNlcjpzZWNyZXQ=", headers.getFirst(HttpHeaders.AUTHORIZATION));
+    assertThrows(UnsupportedOperationException.class, () -> headers.set("X-Test", "1"));
+    client.refreshCredentials();
+    assertSame(headers, client.headers());
+
+    environment.setProperty("service.auth.password", "rotated");
+    client.refreshCredentials();
+    assertNotSame(headers, client.headers());
+    assertEquals("Basic dXNlcjpyb3RhdGVk", client.headers().getFirst(HttpHeaders.AUTHORIZATION));
+  }
+
+  @Test
+  void streamsBodyAndHeadersThrough() throws Exception {
+    RestTemplate restTemplate = new RestTemplate();
+    MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+    HttpHeaders upstreamHeaders = new HttpHeaders();
+    upstreamHeaders.setETag("\"v1\"");
+    String body = "[{\"id\":1}]".repeat(10_000);
+    server.expect(requestTo("http://svc/tree/5"))
+        .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v0\""))
+        .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(upstreamHeaders));
+    server.expect(requestTo("http://svc/tree/6")).andRespond(withResourceNotFound().body("nope"));
+    DownstreamClient client = new DownstreamClient(restTemplate, new MockEnvironment(),
+        new SimpleMeterRegistry(), 4);
+
+    HttpHeaders conditional = new HttpHeaders();
+    conditional.setIfNoneMatch("\"v0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    ByteArrayOutputStream tee = new ByteArrayOutputStream();
+    client.stream(HttpMethod.GET, "http://svc", "/tree/{id}", conditional, response, tee, 5);
+    assertEquals(200, response.getStatus());
+    assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+    assertEquals("\"v1\"", response.getHeader(HttpHeaders.ETAG));
+    assertEquals(body, response.getContentAsString());
+    assertEquals(body, tee.toString());
+
+    MockHttpServletResponse missing = new MockHttpServletResponse();
+    client.stream(HttpMethod.GET, "http://svc", "/tree/{id}", HttpHeaders.EMPTY, missing, null, 6);
+    assertEquals(404, missing.getStatus());
+    assertEquals("nope", missing.getContentAsString());
+    server.verify();
+  }
+}
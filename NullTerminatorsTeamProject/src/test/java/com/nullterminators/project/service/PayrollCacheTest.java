@@ -0,0 +1,54 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
+
+class PayrollCacheTest {
+
+  private final PayrollCache cache = new PayrollCache(60_000, 100, new SimpleMeterRegistry());
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private Pair<HttpStatus, Object> load(HttpStatus status) {
+    loads.incrementAndGet();
+    return Pair.of(status, List.of("payroll-" + loads.get()));
+  }
+
+  @Test
+  void cachesSuccessfulReadsUntilInvalidated() {
+    cache.get(1, () -> load(HttpStatus.OK));
+    cache.get(1, () -> load(HttpStatus.OK));
+    assertEquals(1, loads.get());
+
+    cache.invalidate(2);
+    cache.get(1, () -> load(HttpStatus.OK));
+    assertEquals(1, loads.get());
+
+    cache.invalidate(1);
+    cache.get(1, () -> load(HttpStatus.OK));
+    assertEquals(2, loads.get());
+
+    cache.invalidateAll();
+    cache.get(1, () -> load(HttpStatus.OK));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void doesNotCacheErrorsOrReadsThatRacedAWrite() {
+    cache.get(1, () -> load(HttpStatus.NOT_FOUND));
+    cache.get(1, () -> load(HttpStatus.NOT_FOUND));
+    assertEquals(2, loads.get());
+
+    cache.get(3, () -> {
+      cache.invalidate(3);
+      return load(HttpStatus.OK);
+    });
+    cache.get(3, () -> load(HttpStatus.OK));
+    assertEquals(4, loads.get());
+  }
+}
@@ -0,0 +1,52 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nullterminators.project.dto.TimeOff;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeOffIntervalIndexTest {
+
+  private static TimeOff timeOff(long id, String start, String end) {
+    TimeOff timeOff = new TimeOff();
+    timeOff.setId(id);
+    timeOff.setStartDate(LocalDate.parse(start));
+    timeOff.setEndDate(LocalDate.parse(end));
+    return timeOff;
+  }
+
+  private static List<Long> ids(List<TimeOff> timeOffs) {
+    return timeOffs.stream().map(TimeOff::getId).toList();
+  }
+
+  @Test
+  void overlappingFindsIntervalsThatStartBeforeTheRange() {
+    TimeOffIntervalIndex index = new TimeOffIntervalIndex(List.of(
+        timeOff(1, "2024-01-01", "2024-03-31"),
+        timeOff(2, "2024-02-01", "2024-02-03"),
+        timeOff(3, "2024-02-10", "2024-02-12"),
+        timeOff(4, "2024-04-01", "2024-04-02")));
+
+    assertEquals(List.of(1L, 3L),
+        ids(index.overlapping(LocalDate.parse("2024-02-05"), LocalDate.parse("2024-02-10"))));
+    assertEquals(List.of(4L),
+        ids(index.overlapping(LocalDate.parse("2024-04-02"), LocalDate.parse("2024-05-01"))));
+    assertTrue(index.overlapping(LocalDate.parse("2023-01-01"), LocalDate.parse("2023-12-31"))
+        .isEmpty());
+  }
+
+  @Test
+  void withReplacesEntryWithSameId() {
+    TimeOffIntervalIndex index = new TimeOffIntervalIndex(List.of(
+        timeOff(1, "2024-01-01", "2024-01-02")))
+        .with(timeOff(1, "2024-06-01", "2024-06-02"))
+        .with(timeOff(2, "2024-01-01", "2024-01-01"));
+
+    assertEquals(2, index.all().size());
+    assertEquals(List.of(2L),
+        ids(index.overlapping(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-31"))));
+  }
+}
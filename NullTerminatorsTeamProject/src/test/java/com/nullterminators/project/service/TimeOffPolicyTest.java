@@ -0,0 +1,54 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nullterminators.project.dto.TimeOffRequest;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+class TimeOffPolicyTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 2, 1);
+
+  private final TimeOffPolicy policy =
+      new TimeOffPolicy("CASUAL,SICK,HOLIDAY,MATERNITY,PATERNITY", "CASUAL:5");
+
+  private static TimeOffRequest request(String leaveType, String start, String end) {
+    TimeOffRequest request = new TimeOffRequest();
+    request.setEmployeeId(7);
+    request.setLeaveType(leaveType);
+    request.setStartDate(start);
+    request.setEndDate(end);
+    return request;
+  }
+
+  @Test
+  void acceptsRequestWithinLimits() {
+    assertNull(policy.validate(request("CASUAL", "2024-02-05", "2024-02-09"), TODAY));
+    assertNull(policy.validate(request("SICK", "2024-02-05", "2024-03-09"), TODAY));
+  }
+
+  @Test
+  void rejectsInvalidRequests() {
+    assertEquals("Invalid leave type.",
+        policy.validate(request("VACATION", "2024-02-05", "2024-02-09"), TODAY));
+    assertEquals("Invalid date format. Use 'yyyy-MM-dd'.",
+        policy.validate(request("SICK", "2023-02-29", "2024-02-09"), TODAY));
+    assertEquals("Start date must be before or the same as end date.",
+        policy.validate(request("SICK", "2024-02-09", "2024-02-05"), TODAY));
+    assertEquals("Start date cannot be in the past.",
+        policy.validate(request("SICK", "2024-01-31", "2024-02-05"), TODAY));
+    assertEquals("Casual leave cannot exceed 5 days.",
+        policy.validate(request("CASUAL", "2024-02-05", "2024-02-10"), TODAY));
+  }
+
+  @Test
+  void parsesDatesWithoutExceptions() {
+    assertEquals(LocalDate.of(2024, 2, 29), TimeOffPolicy.parseDate("2024-02-29"));
+    assertNull(TimeOffPolicy.parseDate("2024-2-29"));
+    assertNull(TimeOffPolicy.parseDate("2024-13-01"));
+    assertNull(TimeOffPolicy.parseDate("2024-04-31"));
+    assertNull(TimeOffPolicy.parseDate(null));
+  }
+}
@@ -0,0 +1,54 @@
+package com.nullterminators.project.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nullterminators.project.dto.TimeOff;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TimeOffStoreTest {
+
+  private final TimeOffStore store = new TimeOffStore(100, 60_000, new SimpleMeterRegistry());
+
+  private static TimeOff timeOff(long id) {
+    TimeOff timeOff = new TimeOff();
+    timeOff.setId(id);
+    timeOff.setEmployeeId(1);
+    timeOff.setStartDate(LocalDate.of(2024, 1, 1));
+    timeOff.setEndDate(LocalDate.of(2024, 1, 2));
+    return timeOff;
+  }
+
+  @Test
+  void doesNotStoreALoadThatRacedAWrite() {
+    store.get(1, id -> {
+      store.invalidate(1);
+      return List.of(timeOff(1));
+    });
+    assertNull(store.peek(1));
+
+    store.get(1, id -> List.of(timeOff(1)));
+    assertEquals(1, store.peek(1).all().size());
+  }
+
+  @Test
+  void refreshSkipsDroppedEmployeesAndStaleFetches() {
+    long seen = store.generation();
+    store.refresh(2, seen, List.of(timeOff(1)));
+    assertNull(store.peek(2));
+
+    store.get(1, id -> List.of(timeOff(1)));
+    seen = store.generation();
+    store.put(1, timeOff(2));
+    store.refresh(1, seen, List.of(timeOff(1)));
+    assertEquals(2, store.peek(1).all().size());
+
+    store.refresh(1, store.generation(), List.of());
+    assertEquals(0, store.peek(1).all().size());
+    assertEquals(List.of(), store.staleEmployees(Duration.ofMinutes(1)));
+  }
+}